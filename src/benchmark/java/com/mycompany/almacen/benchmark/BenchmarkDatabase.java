@@ -0,0 +1,133 @@
+package com.mycompany.almacen.benchmark;
+
+import com.mycompany.almacen.dao.BrandDAO;
+import com.mycompany.almacen.dao.CategoryDAO;
+import com.mycompany.almacen.dao.ProductDAO;
+import com.mycompany.almacen.database.DatabaseManager;
+import com.mycompany.almacen.model.Product;
+import com.mycompany.almacen.service.BrandService;
+import com.mycompany.almacen.service.CategoryService;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Base SQLite temporaria con un catálogo sintético para los benchmarks.
+ *
+ * Los datos son deterministas (semilla fija), así que dos corridas con el mismo
+ * tamaño miden exactamente la misma base.
+ */
+final class BenchmarkDatabase implements AutoCloseable {
+
+    static final int BRANDS = 40;
+    static final int CATEGORIES = 12;
+    static final int INITIAL_STOCK = 1_000_000;
+    private static final int SEED_BATCH = 1000;
+
+    private final File file;
+    private final int[] brandIds = new int[BRANDS];
+    private final int[] categoryIds = new int[CATEGORIES];
+
+    private BenchmarkDatabase(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Crea la base, aplica las migraciones y siembra {@code catalogSize} productos.
+     */
+    static BenchmarkDatabase create(int catalogSize) throws IOException, SQLException {
+        File file = File.createTempFile("almacen-bench-", ".db");
+        if (!file.delete()) {
+            throw new IOException("No se pudo preparar " + file);
+        }
+        DatabaseManager.configure("jdbc:sqlite:" + file.getAbsolutePath());
+        DatabaseManager.createTables();
+        BrandService.invalidateCache();
+        CategoryService.invalidateCache();
+
+        BenchmarkDatabase database = new BenchmarkDatabase(file);
+        database.seed(catalogSize);
+        return database;
+    }
+
+    static String productName(int index) {
+        return String.format("Producto %06d", index);
+    }
+
+    static String brandName(int index) {
+        return "Marca " + index;
+    }
+
+    static String categoryName(int index) {
+        return "Categoría " + index;
+    }
+
+    private void seed(int catalogSize) throws SQLException {
+        BrandDAO brandDAO = new BrandDAO();
+        CategoryDAO categoryDAO = new CategoryDAO();
+        ProductDAO productDAO = new ProductDAO();
+        Random random = new Random(42);
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (int i = 0; i < BRANDS; i++) {
+                    brandIds[i] = brandDAO.findOrCreateBrandId(conn, brandName(i));
+                }
+                for (int i = 0; i < CATEGORIES; i++) {
+                    categoryIds[i] = categoryDAO.findOrCreateCategoryId(conn, categoryName(i));
+                }
+                List<Product> batch = new ArrayList<>(SEED_BATCH);
+                for (int i = 0; i < catalogSize; i++) {
+                    Product product = new Product(
+                        0,
+                        productName(i),
+                        "Descripción del producto " + i,
+                        0,
+                        INITIAL_STOCK,
+                        categoryIds[random.nextInt(CATEGORIES)],
+                        brandIds[random.nextInt(BRANDS)],
+                        "M-" + random.nextInt(10_000)
+                    );
+                    product.setPriceCents(100 + random.nextInt(500_000));
+                    batch.add(product);
+                    if (batch.size() == SEED_BATCH) {
+                        productDAO.upsertProductsBatch(conn, batch);
+                        batch.clear();
+                    }
+                }
+                productDAO.upsertProductsBatch(conn, batch);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    int brandId(int index) {
+        return brandIds[Math.floorMod(index, BRANDS)];
+    }
+
+    int categoryId(int index) {
+        return categoryIds[Math.floorMod(index, CATEGORIES)];
+    }
+
+    @Override
+    public void close() {
+        DatabaseManager.shutdown();
+        for (String suffix : new String[] {"", "-wal", "-shm"}) {
+            File part = new File(file.getPath() + suffix);
+            if (part.exists() && !part.delete()) {
+                part.deleteOnExit();
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.mycompany.almacen.benchmark;
+
+import com.mycompany.almacen.model.Invoice;
+import com.mycompany.almacen.model.InvoiceItem;
+import com.mycompany.almacen.model.Product;
+import com.mycompany.almacen.service.InvoiceService;
+import com.mycompany.almacen.service.ProductService;
+import com.mycompany.almacen.util.PdfGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generación del PDF de una factura leída de la base.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PdfBenchmark {
+
+    private static final int CATALOG_SIZE = 1000;
+
+    @Param({"1", "10", "50"})
+    public int itemCount;
+
+    private BenchmarkDatabase database;
+    private Invoice invoice;
+    private List<InvoiceItem> items;
+    private File output;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = BenchmarkDatabase.create(CATALOG_SIZE);
+        ProductService productService = new ProductService();
+        InvoiceService invoiceService = new InvoiceService();
+
+        List<InvoiceItem> saleItems = new ArrayList<>(itemCount);
+        long totalCents = 0;
+        for (int i = 0; i < itemCount; i++) {
+            Product product = productService.getProductById(1 + i);
+            InvoiceItem item = new InvoiceItem(0, product.getId(), product.getName(), 1 + i % 3, 0);
+            item.setUnitPriceCents(product.getPriceCents());
+            saleItems.add(item);
+            totalCents += item.getUnitPriceCents() * item.getQuantity();
+        }
+        Invoice sale = new Invoice(new Date(), "Cliente benchmark", 0);
+        sale.setTotalAmountCents(totalCents);
+        int invoiceId = invoiceService.processSale(sale, saleItems);
+
+        invoice = invoiceService.getInvoiceById(invoiceId);
+        items = invoiceService.getInvoiceItemsByInvoiceId(invoiceId);
+        output = File.createTempFile("almacen-bench-", ".pdf");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+        if (!output.delete()) {
+            output.deleteOnExit();
+        }
+    }
+
+    @Benchmark
+    public long generateInvoicePdf() throws FileNotFoundException {
+        PdfGenerator.generateInvoicePdf(invoice, items, output.getPath());
+        return output.length();
+    }
+}
@@ -0,0 +1,68 @@
+package com.mycompany.almacen.benchmark;
+
+import com.mycompany.almacen.dao.ProductDAO;
+import com.mycompany.almacen.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lecturas del catálogo: listado completo y búsquedas por nombre.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductQueryBenchmark {
+
+    /** Coincide con 11 productos en cualquier tamaño de catálogo (000042 y 000420-000429). */
+    private static final String SEARCH_TERM = "00042";
+
+    @Param({"1000", "10000", "100000"})
+    public int catalogSize;
+
+    private BenchmarkDatabase database;
+    private ProductDAO productDAO;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = BenchmarkDatabase.create(catalogSize);
+        productDAO = new ProductDAO();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public List<Product> getAllProducts() throws SQLException {
+        return productDAO.getAllProducts();
+    }
+
+    @Benchmark
+    public List<Product> searchProductsByName() throws SQLException {
+        return productDAO.searchProductsByName(SEARCH_TERM);
+    }
+
+    @Benchmark
+    public List<Product> searchProductsRanked() throws SQLException {
+        return productDAO.searchProductsRanked(SEARCH_TERM, 50);
+    }
+}
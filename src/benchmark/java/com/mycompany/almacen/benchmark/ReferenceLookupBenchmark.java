@@ -0,0 +1,74 @@
+package com.mycompany.almacen.benchmark;
+
+import com.mycompany.almacen.dao.BrandDAO;
+import com.mycompany.almacen.dao.CategoryDAO;
+import com.mycompany.almacen.exception.AlmacenException;
+import com.mycompany.almacen.model.Brand;
+import com.mycompany.almacen.model.Category;
+import com.mycompany.almacen.service.BrandService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Búsquedas de marcas y categorías: acceso directo al DAO frente a la caché
+ * de referencia del servicio.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReferenceLookupBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int catalogSize;
+
+    private BenchmarkDatabase database;
+    private BrandDAO brandDAO;
+    private CategoryDAO categoryDAO;
+    private BrandService brandService;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = BenchmarkDatabase.create(catalogSize);
+        brandDAO = new BrandDAO();
+        categoryDAO = new CategoryDAO();
+        brandService = new BrandService(brandDAO);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public Brand brandDaoGetById() throws SQLException {
+        return brandDAO.getBrandById(database.brandId(next++));
+    }
+
+    @Benchmark
+    public Category categoryDaoGetByName() throws SQLException {
+        return categoryDAO.getCategoryByName(BenchmarkDatabase.categoryName(Math.floorMod(next++, BenchmarkDatabase.CATEGORIES)));
+    }
+
+    @Benchmark
+    public String brandServiceGetName() throws AlmacenException {
+        return brandService.getBrandName(database.brandId(next++));
+    }
+}
@@ -0,0 +1,77 @@
+package com.mycompany.almacen.benchmark;
+
+import com.mycompany.almacen.exception.AlmacenException;
+import com.mycompany.almacen.model.Invoice;
+import com.mycompany.almacen.model.InvoiceItem;
+import com.mycompany.almacen.model.Product;
+import com.mycompany.almacen.service.InvoiceService;
+import com.mycompany.almacen.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registro de una venta de tres ítems: factura, ítems y stock en una transacción.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SaleBenchmark {
+
+    private static final int ITEMS_PER_SALE = 3;
+
+    @Param({"1000", "10000", "100000"})
+    public int catalogSize;
+
+    private BenchmarkDatabase database;
+    private InvoiceService invoiceService;
+    private final List<Product> products = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = BenchmarkDatabase.create(catalogSize);
+        invoiceService = new InvoiceService();
+        ProductService productService = new ProductService();
+        for (int i = 0; i < ITEMS_PER_SALE; i++) {
+            products.add(productService.getProductById(1 + i * (catalogSize / ITEMS_PER_SALE)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public int processSale() throws AlmacenException {
+        List<InvoiceItem> items = new ArrayList<>(ITEMS_PER_SALE);
+        long totalCents = 0;
+        for (Product product : products) {
+            InvoiceItem item = new InvoiceItem(0, product.getId(), product.getName(), 1, 0);
+            item.setUnitPriceCents(product.getPriceCents());
+            items.add(item);
+            totalCents += product.getPriceCents();
+        }
+        Invoice invoice = new Invoice(new Date(), "Cliente benchmark", 0);
+        invoice.setTotalAmountCents(totalCents);
+        return invoiceService.processSale(invoice, items);
+    }
+}
@@ -1,9 +1,17 @@
 package com.mycompany.almacen;
 
 import com.mycompany.almacen.controller.*;
+import com.mycompany.almacen.database.DatabaseBootstrap;
 import com.mycompany.almacen.database.DatabaseManager;
+import com.mycompany.almacen.gui.components.InvoiceExportPane;
+import com.mycompany.almacen.gui.components.SqlDiagnosticsPane;
+import com.mycompany.almacen.metrics.MetricsRegistry;
 import com.mycompany.almacen.service.*;
+import com.mycompany.almacen.util.BackgroundTasks;
+import com.mycompany.almacen.util.PdfRenderService;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -23,6 +31,11 @@ public class AlmacenFX extends Application {
     private CategoryService categoryService;
     private BrandService brandService;
     private InvoiceService invoiceService;
+    private KpiService kpiService;
+    private KpiAggregator kpiAggregator;
+    private PdfRenderService pdfRenderService;
+    private InvoiceExportService invoiceExportService;
+    private ProductImportService productImportService;
 
     // Controladores
     private DashboardController dashboardController;
@@ -31,24 +44,78 @@ public class AlmacenFX extends Application {
     // UI Principal
     private BorderPane mainLayout;
     private TabPane tabPane;
+    private VBox invoicesContent;
 
     @Override
     public void start(Stage primaryStage) {
-        initializeServices();
+        long startNanos = System.nanoTime();
+        // La base se prepara en segundo plano mientras se cargan las vistas FXML
+        CompletableFuture<DatabaseBootstrap.Report> boot = DatabaseBootstrap.runAsync();
+
         createMainLayout(primaryStage);
+        long layoutNanos = System.nanoTime();
+
+        awaitDatabase(boot);
+        long bootWaitNanos = System.nanoTime();
+
+        initializeServices();
+        initializeControllers();
+        MetricsRegistry.shared().startPeriodicLog();
+        primaryStage.show();
+        long endNanos = System.nanoTime();
+
+        System.out.println(String.format(
+            "Startup: views=%.1fms waitDb=%.1fms services+controllers=%.1fms total=%.1fms",
+            (layoutNanos - startNanos) / 1_000_000.0,
+            (bootWaitNanos - layoutNanos) / 1_000_000.0,
+            (endNanos - bootWaitNanos) / 1_000_000.0,
+            (endNanos - startNanos) / 1_000_000.0
+        ));
+    }
+
+    private void awaitDatabase(CompletableFuture<DatabaseBootstrap.Report> boot) {
+        try {
+            boot.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            System.err.println("Error initializing database: " + cause.getMessage());
+            cause.printStackTrace();
+            showError("Error al inicializar la base de datos: " + cause.getMessage());
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (kpiAggregator != null) {
+            kpiAggregator.shutdown();
+        }
+        if (pdfRenderService != null) {
+            pdfRenderService.shutdown();
+        }
+        BackgroundTasks.shared().shutdown();
+        MetricsRegistry.shared().stopPeriodicLog();
+        DatabaseManager.shutdown();
     }
 
     /**
      * Inicializa servicios con inyección de dependencias.
      */
     private void initializeServices() {
-        DatabaseManager.createTables();
-        DatabaseManager.seedDatabaseWithSampleData();
-
         productService = new ProductService();
         categoryService = new CategoryService();
         brandService = new BrandService();
         invoiceService = new InvoiceService();
+        kpiService = new KpiService();
+
+        // Contadores del Dashboard alimentados por eventos de los servicios
+        kpiAggregator = new KpiAggregator(kpiService);
+        productService.addInventoryListener(kpiAggregator);
+        invoiceService.addInventoryListener(kpiAggregator);
+        productImportService = new ProductImportService();
+        productImportService.addInventoryListener(kpiAggregator);
+        kpiAggregator.start();
+        pdfRenderService = new PdfRenderService();
+        invoiceExportService = new InvoiceExportService();
     }
 
     /**
@@ -86,7 +153,27 @@ public class AlmacenFX extends Application {
         primaryStage.setScene(scene);
         primaryStage.setMinWidth(1200);
         primaryStage.setMinHeight(800);
-        primaryStage.show();
+    }
+
+    /**
+     * Inicializa los controladores de las pestañas. Requiere la base lista,
+     * porque empiezan a cargar datos.
+     */
+    private void initializeControllers() {
+        if (dashboardController != null) {
+            dashboardController.initialize(kpiAggregator);
+        }
+        if (catalogController != null) {
+            catalogController.initialize(
+                productService,
+                categoryService,
+                brandService,
+                productImportService
+            );
+        }
+        if (invoicesContent != null) {
+            invoicesContent.getChildren().add(new InvoiceExportPane(invoiceExportService));
+        }
     }
 
     /**
@@ -181,7 +268,6 @@ public class AlmacenFX extends Application {
             VBox dashboard = loader.load();
 
             dashboardController = loader.getController();
-            dashboardController.initialize(productService, invoiceService);
 
             Tab tab = new Tab("Dashboard", dashboard);
             tab.setClosable(false);
@@ -203,11 +289,6 @@ public class AlmacenFX extends Application {
             VBox catalog = loader.load();
 
             catalogController = loader.getController();
-            catalogController.initialize(
-                productService,
-                categoryService,
-                brandService
-            );
 
             Tab tab = new Tab("Productos", catalog);
             tab.setClosable(false);
@@ -229,7 +310,7 @@ public class AlmacenFX extends Application {
             BorderPane modalContent = loader.load();
 
             QuickSaleModalController controller = loader.getController();
-            controller.initialize(productService, invoiceService, () -> {
+            controller.initialize(productService, invoiceService, pdfRenderService, () -> {
                 // Callback al cerrar: refrescar dashboard y catálogo
                 refreshDashboard();
                 if (catalogController != null) {
@@ -270,12 +351,14 @@ public class AlmacenFX extends Application {
         Label title = new Label("📄 Gestión de Facturas");
         title.setStyle("-fx-font-size: 24px; -fx-font-weight: 700;");
 
-        Label description = new Label("Módulo de facturación en desarrollo...");
+        Label description = new Label("Exporte el historial de facturas e ítems a CSV.");
         description.setStyle(
             "-fx-font-size: 14px; -fx-text-fill: -text-secondary;"
         );
 
         content.getChildren().addAll(title, description);
+        // El panel de exportación se agrega al inicializar los servicios
+        invoicesContent = content;
 
         Tab tab = new Tab("Facturas", content);
         tab.setClosable(false);
@@ -292,14 +375,16 @@ public class AlmacenFX extends Application {
     }
 
     /**
-     * Muestra la configuración (placeholder).
+     * Muestra el diagnóstico de sentencias SQL.
      */
     private void showSettings() {
-        Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        alert.setTitle("Configuración");
-        alert.setHeaderText("Configuración del Sistema");
-        alert.setContentText("Módulo de configuración en desarrollo...");
-        alert.showAndWait();
+        Dialog<Void> dialog = new Dialog<>();
+        dialog.setTitle("Configuración");
+        dialog.setHeaderText("Diagnóstico de consultas SQL");
+        dialog.getDialogPane().setContent(new SqlDiagnosticsPane());
+        dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+        dialog.setResizable(true);
+        dialog.showAndWait();
     }
 
     /**
@@ -1,18 +1,15 @@
 package com.mycompany.almacen.controller;
 
+import com.mycompany.almacen.model.DashboardKpis;
 import com.mycompany.almacen.model.Product;
-import com.mycompany.almacen.model.Invoice;
-import com.mycompany.almacen.service.ProductService;
-import com.mycompany.almacen.service.InvoiceService;
-import com.mycompany.almacen.exception.AlmacenException;
+import com.mycompany.almacen.service.KpiAggregator;
+import com.mycompany.almacen.util.BackgroundTasks;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.layout.VBox;
 
-import java.time.LocalDate;
-import java.util.List;
-
 /**
  * Controller para el Dashboard con KPIs.
  * Muestra métricas clave del inventario y ventas.
@@ -39,121 +36,78 @@ public class DashboardController {
 
     @FXML private Button refreshButton;
 
-    private ProductService productService;
-    private InvoiceService invoiceService;
+    private KpiAggregator kpiAggregator;
 
     public DashboardController() {
     }
 
-    public void initialize(ProductService productService, InvoiceService invoiceService) {
-        this.productService = productService;
-        this.invoiceService = invoiceService;
+    public void initialize(KpiAggregator kpiAggregator) {
+        this.kpiAggregator = kpiAggregator;
+        // Actualización en vivo tras cada venta o cambio de producto
+        kpiAggregator.addChangeListener(() -> Platform.runLater(this::loadDashboardData));
+        refreshButton.setOnAction(e -> resyncDashboardData());
         loadDashboardData();
     }
 
     /**
-     * Carga todas las métricas del dashboard.
+     * Muestra las métricas actuales. Lee contadores en memoria: O(1), sin consultas.
      */
     public void loadDashboardData() {
-        try {
-            loadInventoryValue();
-            loadDailySales();
-            loadLowStock();
-            loadTotalProducts();
-        } catch (Exception e) {
-            e.printStackTrace();
+        if (kpiAggregator.isSynced()) {
+            showMetrics(kpiAggregator.snapshot());
         }
     }
 
     /**
-     * Calcula y muestra el valor total del inventario.
-     * Fórmula: SUM(precio * stock) para todos los productos
+     * Fuerza la resincronización de los contadores desde la base de datos.
      */
-    private void loadInventoryValue() {
-        try {
-            List<Product> products = productService.getAllProducts();
-            double totalValue = products.stream()
-                .mapToDouble(p -> p.getPrice() * p.getStock())
-                .sum();
-            
-            inventoryValueLabel.setText(String.format("$%,.2f", totalValue));
-            
-            // Simular cambio (en producción, comparar con período anterior)
-            inventoryValueChange.setText("+0% vs mes anterior");
-            
-        } catch (AlmacenException e) {
-            inventoryValueLabel.setText("$0.00");
-            inventoryValueChange.setText("Error al cargar");
-        }
+    public void resyncDashboardData() {
+        BackgroundTasks.shared().submit(
+            "dashboard-resync",
+            () -> {
+                kpiAggregator.resync();
+                return kpiAggregator.snapshot();
+            },
+            this::showMetrics,
+            error -> {
+                error.printStackTrace();
+                showLoadError();
+            }
+        );
     }
 
-    /**
-     * Calcula y muestra las ventas del día actual.
-     */
-    private void loadDailySales() {
-        try {
-            List<Invoice> invoices = invoiceService.getAllInvoices();
-            LocalDate today = LocalDate.now();
-            
-            double dailyTotal = invoices.stream()
-                .filter(inv -> inv.getInvoiceDate() != null && 
-                              LocalDate.from(inv.getInvoiceDate().toInstant()).equals(today))
-                .mapToDouble(Invoice::getTotalAmount)
-                .sum();
-            
-            long dailyCount = invoices.stream()
-                .filter(inv -> inv.getInvoiceDate() != null &&
-                              LocalDate.from(inv.getInvoiceDate().toInstant()).equals(today))
-                .count();
-            
-            dailySalesLabel.setText(String.format("$%,.2f", dailyTotal));
-            dailySalesChange.setText("+" + dailyCount + " ventas");
-            
-        } catch (AlmacenException e) {
-            dailySalesLabel.setText("$0.00");
-            dailySalesChange.setText("Error al cargar");
-        }
-    }
+    private void showMetrics(DashboardKpis kpis) {
+        inventoryValueLabel.setText(String.format("$%,.2f", kpis.getInventoryValue()));
+        // Simular cambio (en producción, comparar con período anterior)
+        inventoryValueChange.setText("+0% vs mes anterior");
 
-    /**
-     * Cuenta productos con stock bajo (<= 10 unidades).
-     */
-    private void loadLowStock() {
-        try {
-            List<Product> products = productService.getAllProducts();
-            long lowStockCount = products.stream()
-                .filter(p -> p.getStock() <= 10)
-                .count();
-            
-            lowStockLabel.setText(lowStockCount + " productos");
-            
-            if (lowStockCount > 0) {
-                lowStockChange.setText("Requieren atención");
+        dailySalesLabel.setText(String.format("$%,.2f", kpis.getDailySales()));
+        dailySalesChange.setText("+" + kpis.getDailySalesCount() + " ventas");
+
+        lowStockLabel.setText(kpis.getLowStockCount() + " productos");
+        if (kpis.getLowStockCount() > 0) {
+            lowStockChange.setText("Requieren atención");
+            if (!lowStockChange.getStyleClass().contains("negative")) {
                 lowStockChange.getStyleClass().add("negative");
-            } else {
-                lowStockChange.setText("Todo en orden");
-                lowStockChange.getStyleClass().remove("negative");
             }
-            
-        } catch (AlmacenException e) {
-            lowStockLabel.setText("0 productos");
-            lowStockChange.setText("Error al cargar");
+        } else {
+            lowStockChange.setText("Todo en orden");
+            lowStockChange.getStyleClass().remove("negative");
         }
+
+        totalProductsLabel.setText(String.valueOf(kpis.getTotalProducts()));
+        totalProductsChange.setText("En catálogo");
     }
 
-    /**
-     * Cuenta el total de productos en el catálogo.
-     */
-    private void loadTotalProducts() {
-        try {
-            List<Product> products = productService.getAllProducts();
-            totalProductsLabel.setText(String.valueOf(products.size()));
-            totalProductsChange.setText("En catálogo");
-            
-        } catch (AlmacenException e) {
-            totalProductsLabel.setText("0");
-            totalProductsChange.setText("Error al cargar");
-        }
+    private void showLoadError() {
+        inventoryValueLabel.setText("$0.00");
+        inventoryValueChange.setText("Error al cargar");
+        dailySalesLabel.setText("$0.00");
+        dailySalesChange.setText("Error al cargar");
+        lowStockLabel.setText("0 productos");
+        lowStockChange.setText("Error al cargar");
+        totalProductsLabel.setText("0");
+        totalProductsChange.setText("Error al cargar");
     }
 
     /**
@@ -161,8 +115,7 @@ public class DashboardController {
      * Útil para actualizaciones en tiempo real cuando cambia el stock.
      */
     public void refreshProduct(Product product) {
-        // Recargar métricas afectadas
-        loadInventoryValue();
-        loadLowStock();
+        // Los contadores ya recibieron el delta; solo se repinta
+        loadDashboardData();
     }
 }
@@ -1,13 +1,22 @@
 package com.mycompany.almacen.controller;
 
 import com.mycompany.almacen.controller.ProductModalController;
-import com.mycompany.almacen.exception.AlmacenException;
+import com.mycompany.almacen.dao.ProductPageRequest;
+import com.mycompany.almacen.gui.components.PagedDataSource;
 import com.mycompany.almacen.model.Product;
 import com.mycompany.almacen.service.BrandService;
 import com.mycompany.almacen.service.CategoryService;
+import com.mycompany.almacen.service.ProductImportReport;
+import com.mycompany.almacen.service.ProductImportService;
+import com.mycompany.almacen.service.ProductSearchIndex;
 import com.mycompany.almacen.service.ProductService;
+import com.mycompany.almacen.util.BackgroundTasks;
+import java.io.File;
 import java.io.IOException;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
+import javafx.application.Platform;
+import javafx.animation.PauseTransition;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -16,8 +25,10 @@ import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 /**
  * Controller para el Catálogo de Productos con TableView.
@@ -30,6 +41,9 @@ public class ProductCatalogController {
     @FXML
     private Button newProductButton;
 
+    @FXML
+    private Button importButton;
+
     @FXML
     private TextField searchField;
 
@@ -63,20 +77,43 @@ public class ProductCatalogController {
     private ProductService productService;
     private CategoryService categoryService;
     private BrandService brandService;
-    private ObservableList<Product> productList;
-
-    public ProductCatalogController() {
-        this.productList = FXCollections.observableArrayList();
-    }
+    private ProductImportService importService;
+    private PagedDataSource<Product> pagedProducts;
+    private ProductPageRequest.SortField pageSortField = ProductPageRequest.SortField.ID;
+    private boolean pageDescending;
+    private final ObservableList<Product> searchResults = FXCollections.observableArrayList();
+    private ProductSearchIndex searchIndex;
+    private boolean searchIndexLoading;
+    private final PauseTransition searchDebounce = new PauseTransition(Duration.millis(150));
+
+    private static final String PRODUCTS_REQUEST = "catalog-products";
+    private static final String PAGE_REQUEST = "catalog-page";
+    private static final String IMPORT_REQUEST = "catalog-import";
+    private static final String DELETE_REQUEST = "catalog-delete";
+    private static final int MAX_REPORTED_ERRORS = 20;
 
     public void initialize(
         ProductService productService,
         CategoryService categoryService,
-        BrandService brandService
+        BrandService brandService,
+        ProductImportService importService
     ) {
         this.productService = productService;
         this.categoryService = categoryService;
         this.brandService = brandService;
+        this.importService = importService;
+        this.pagedProducts = new PagedDataSource<>(
+            PAGE_REQUEST,
+            (after, pageSize) -> {
+                ProductPageRequest request = new ProductPageRequest();
+                request.setPageSize(pageSize);
+                request.setSortField(pageSortField);
+                request.setDescending(pageDescending);
+                return productService.getProductsPage(request, after);
+            },
+            ProductPageRequest.DEFAULT_PAGE_SIZE
+        );
+        pagedProducts.setOnError(this::showPageError);
 
         setupTableColumns();
         setupEventHandlers();
@@ -98,33 +135,21 @@ public class ProductCatalogController {
             )
         );
 
-        colCategory.setCellValueFactory(cellData -> {
-            try {
-                String catName = productService.getCategoryName(
-                    cellData.getValue().getCategoryId()
-                );
-                return new javafx.beans.property.SimpleStringProperty(catName);
-            } catch (Exception e) {
-                return new javafx.beans.property.SimpleStringProperty(
-                    "General"
-                );
-            }
-        });
+        colCategory.setCellValueFactory(cellData ->
+            new javafx.beans.property.SimpleStringProperty(
+                cellData.getValue().getCategoryName() != null
+                    ? cellData.getValue().getCategoryName()
+                    : "General"
+            )
+        );
 
-        colBrand.setCellValueFactory(cellData -> {
-            try {
-                String brandName = productService.getBrandName(
-                    cellData.getValue().getBrandId()
-                );
-                return new javafx.beans.property.SimpleStringProperty(
-                    brandName
-                );
-            } catch (Exception e) {
-                return new javafx.beans.property.SimpleStringProperty(
-                    "General"
-                );
-            }
-        });
+        colBrand.setCellValueFactory(cellData ->
+            new javafx.beans.property.SimpleStringProperty(
+                cellData.getValue().getBrandName() != null
+                    ? cellData.getValue().getBrandName()
+                    : "General"
+            )
+        );
 
         colPrice.setCellValueFactory(cellData ->
             new javafx.beans.property.SimpleObjectProperty<>(
@@ -172,55 +197,107 @@ public class ProductCatalogController {
             }
         );
 
-        productsTable.setItems(productList);
+        pagedProducts.attach(productsTable);
+        setupPagedSorting();
+    }
+
+    /**
+     * En la vista paginada el orden lo hace la consulta: ordenar en memoria la
+     * lista cargada rompería el cursor y mezclaría las páginas siguientes. Al
+     * cambiar el orden se vuelve a paginar desde el principio. Las columnas sin
+     * orden en la base no se ordenan en esa vista; la búsqueda sí ordena en memoria.
+     */
+    private void setupPagedSorting() {
+        Map<TableColumn<Product, ?>, ProductPageRequest.SortField> sortFields = new HashMap<>();
+        sortFields.put(colName, ProductPageRequest.SortField.NAME);
+        sortFields.put(colPrice, ProductPageRequest.SortField.PRICE);
+        sortFields.put(colStock, ProductPageRequest.SortField.STOCK);
+        colActions.setSortable(false);
+
+        productsTable.setSortPolicy(table -> {
+            if (table.getItems() != pagedProducts.getItems()) {
+                return TableView.DEFAULT_SORT_POLICY.call(table);
+            }
+            ProductPageRequest.SortField field = ProductPageRequest.SortField.ID;
+            boolean descending = false;
+            if (!table.getSortOrder().isEmpty()) {
+                TableColumn<Product, ?> column = table.getSortOrder().get(0);
+                field = sortFields.get(column);
+                if (field == null) {
+                    return false;
+                }
+                descending = column.getSortType() == TableColumn.SortType.DESCENDING;
+            }
+            if (field != pageSortField || descending != pageDescending) {
+                pageSortField = field;
+                pageDescending = descending;
+                pagedProducts.reset();
+            }
+            return true;
+        });
     }
 
     private void setupEventHandlers() {
+        // Debounce: se filtra cuando el usuario deja de escribir
+        searchDebounce.setOnFinished(e -> filterProducts(searchField.getText()));
         searchField
             .textProperty()
-            .addListener((obs, old, newValue) -> {
-                filterProducts(newValue);
-            });
+            .addListener((obs, old, newValue) -> searchDebounce.playFromStart());
 
         clearSearchButton.setOnAction(e -> {
             searchField.clear();
-            loadProducts();
+            searchDebounce.stop();
+            filterProducts("");
         });
 
         newProductButton.setOnAction(e -> openNewProductDialog());
+        importButton.setOnAction(e -> chooseFileAndImport());
     }
 
+    /**
+     * Recarga el catálogo: la vista sin filtro se vuelve a paginar desde el
+     * principio y el índice de búsqueda se descarta hasta la próxima búsqueda.
+     */
     public void loadProducts() {
-        try {
-            List<Product> products = productService.getAllProducts();
-            productList.setAll(products);
-        } catch (AlmacenException e) {
-            showError("Error al cargar productos: " + e.getMessage());
-        }
+        searchIndex = null;
+        searchIndexLoading = false;
+        BackgroundTasks.shared().cancel(PRODUCTS_REQUEST);
+        pagedProducts.reset();
+        filterProducts(searchField.getText());
     }
 
+    /**
+     * Sin término se muestra la vista paginada. Con término se filtra sobre el
+     * índice en memoria, que se construye en segundo plano la primera vez; las
+     * teclas siguientes ya no consultan la base de datos.
+     */
     private void filterProducts(String searchTerm) {
-        try {
-            List<Product> allProducts = productService.getAllProducts();
-            if (searchTerm == null || searchTerm.trim().isEmpty()) {
-                productList.setAll(allProducts);
-            } else {
-                String term = searchTerm.toLowerCase();
-                List<Product> filtered = allProducts
-                    .stream()
-                    .filter(
-                        p ->
-                            (p.getName() != null &&
-                                p.getName().toLowerCase().contains(term)) ||
-                            (p.getModel() != null &&
-                                p.getModel().toLowerCase().contains(term))
-                    )
-                    .collect(java.util.stream.Collectors.toList());
-                productList.setAll(filtered);
-            }
-        } catch (AlmacenException e) {
-            showError("Error al filtrar: " + e.getMessage());
+        if (searchTerm == null || searchTerm.isBlank()) {
+            productsTable.setItems(pagedProducts.getItems());
+            return;
+        }
+        productsTable.setItems(searchResults);
+        if (searchIndex != null) {
+            searchResults.setAll(searchIndex.search(searchTerm));
+            return;
         }
+        if (searchIndexLoading) {
+            return; // al terminar se filtra con el texto vigente
+        }
+        searchIndexLoading = true;
+        BackgroundTasks.shared().submit(
+            PRODUCTS_REQUEST,
+            () -> new ProductSearchIndex(productService.getAllProductsWithNames()),
+            index -> {
+                searchIndexLoading = false;
+                searchIndex = index;
+                filterProducts(searchField.getText());
+            },
+            error -> {
+                searchIndexLoading = false;
+                showError("Error al cargar productos: " + error.getMessage());
+            }
+        );
     }
 
     private void openNewProductDialog() {
@@ -275,6 +352,74 @@ public class ProductCatalogController {
         }
     }
 
+    private void chooseFileAndImport() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Importar productos");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV", "*.csv"));
+        File source = chooser.showOpenDialog(productsTable.getScene().getWindow());
+        if (source == null) {
+            return;
+        }
+
+        String idleText = importButton.getText();
+        importButton.setDisable(true);
+        importButton.setText("Importando...");
+        BackgroundTasks.shared().submit(
+            IMPORT_REQUEST,
+            () -> importService.importProductsCsv(
+                source,
+                (rows, imported) -> Platform.runLater(() -> importButton.setText("Importando... " + rows + " filas")),
+                () -> false
+            ),
+            report -> {
+                importButton.setDisable(false);
+                importButton.setText(idleText);
+                loadProducts();
+                showImportReport(report);
+            },
+            error -> {
+                importButton.setDisable(false);
+                importButton.setText(idleText);
+                loadProducts();
+                showError("Error al importar: " + error.getMessage());
+            }
+        );
+    }
+
+    private void showImportReport(ProductImportReport report) {
+        StringBuilder summary = new StringBuilder()
+            .append(report.getImported()).append(" productos importados de ")
+            .append(report.getRowsRead()).append(" filas.");
+        if (!report.getCreatedBrands().isEmpty()) {
+            summary.append("\nMarcas nuevas: ").append(String.join(", ", report.getCreatedBrands()));
+        }
+        if (!report.getCreatedCategories().isEmpty()) {
+            summary.append("\nCategorías nuevas: ").append(String.join(", ", report.getCreatedCategories()));
+        }
+
+        Alert alert = new Alert(report.getErrors().isEmpty() ? Alert.AlertType.INFORMATION : Alert.AlertType.WARNING);
+        alert.setTitle("Importación de productos");
+        alert.setHeaderText(null);
+        alert.setContentText(summary.toString());
+        if (!report.getErrors().isEmpty()) {
+            StringBuilder details = new StringBuilder();
+            int shown = Math.min(MAX_REPORTED_ERRORS, report.getErrors().size());
+            for (int i = 0; i < shown; i++) {
+                details.append(report.getErrors().get(i)).append('\n');
+            }
+            if (report.getErrors().size() > shown) {
+                details.append("... y ").append(report.getErrors().size() - shown).append(" filas más con errores");
+            }
+            TextArea errors = new TextArea(details.toString());
+            errors.setEditable(false);
+            errors.setWrapText(true);
+            alert.getDialogPane().setExpandableContent(errors);
+            alert.getDialogPane().setExpanded(true);
+            alert.setContentText(summary + "\n" + report.getErrors().size() + " filas rechazadas.");
+        }
+        alert.showAndWait();
+    }
+
     private void deleteProduct(Product product) {
         Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
         confirm.setTitle("Confirmar eliminación");
@@ -289,17 +434,43 @@ public class ProductCatalogController {
             .showAndWait()
             .ifPresent(response -> {
                 if (response == ButtonType.OK) {
-                    try {
-                        productService.deleteProduct(product.getId());
-                        loadProducts();
-                        showSuccess("Producto eliminado correctamente");
-                    } catch (AlmacenException e) {
-                        showError("Error al eliminar: " + e.getMessage());
-                    }
+                    // La escritura puede esperar el lock de escritura (importación o ventas en curso)
+                    productsTable.setDisable(true);
+                    BackgroundTasks.shared().submit(
+                        DELETE_REQUEST,
+                        () -> {
+                            productService.deleteProduct(product.getId());
+                            return product;
+                        },
+                        deleted -> {
+                            productsTable.setDisable(false);
+                            loadProducts();
+                            showSuccess("Producto eliminado correctamente");
+                        },
+                        error -> {
+                            productsTable.setDisable(false);
+                            showError("Error al eliminar: " + error.getMessage());
+                        }
+                    );
                 }
             });
     }
 
+    /**
+     * Error al cargar una página: la carga queda detenida hasta que el usuario
+     * pida reintentar, para no repetir el aviso en cada scroll.
+     */
+    private void showPageError(Throwable error) {
+        ButtonType retry = new ButtonType("Reintentar", ButtonBar.ButtonData.OK_DONE);
+        Alert alert = new Alert(Alert.AlertType.ERROR, "Error al cargar productos: " + error.getMessage(),
+                retry, ButtonType.CLOSE);
+        alert.setTitle("Error");
+        alert.setHeaderText(null);
+        alert.showAndWait()
+            .filter(button -> button == retry)
+            .ifPresent(button -> pagedProducts.retry());
+    }
+
     private void showError(String message) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle("Error");
@@ -9,6 +9,7 @@ import com.mycompany.almacen.service.CategoryService;
 import com.mycompany.almacen.service.ProductService;
 import com.mycompany.almacen.exception.AlmacenException;
 import com.mycompany.almacen.exception.ValidationException;
+import com.mycompany.almacen.util.BackgroundTasks;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.layout.StackPane;
@@ -53,6 +54,9 @@ public class ProductModalController {
     private Runnable onSaveCallback;
     private StockBadge stockBadge;
 
+    private static final String SAVE_REQUEST = "product-modal-save";
+    private static final String BRAND_REQUEST = "product-modal-brand";
+
     public ProductModalController() {
     }
 
@@ -155,6 +159,7 @@ public class ProductModalController {
             return;
         }
 
+        Product product;
         try {
             String name = nameField.getText().trim();
             String model = modelField.getText().trim();
@@ -168,34 +173,52 @@ public class ProductModalController {
             int categoryId = category != null ? category.getId() : 1;
             int brandId = brand != null ? brand.getId() : 1;
 
+            product = new Product(
+                existingProduct != null ? existingProduct.getId() : 0, name, description, price, stock,
+                categoryId, brandId, model
+            );
             if (existingProduct != null) {
-                // Actualizar producto existente
-                Product product = new Product(
-                    existingProduct.getId(), name, description, price, stock, 
-                    categoryId, brandId, model
-                );
-                productService.updateProduct(product);
-            } else {
-                // Crear nuevo producto
-                Product product = new Product(
-                    0, name, description, price, stock, 
-                    categoryId, brandId, model
-                );
-                productService.addProduct(product);
-            }
-
-            if (onSaveCallback != null) {
-                onSaveCallback.run();
+                product.setVersion(existingProduct.getVersion());
             }
-            close();
-
-        } catch (ValidationException e) {
-            showValidationErrors(e);
-        } catch (AlmacenException e) {
-            showError("Error al guardar: " + e.getMessage());
         } catch (NumberFormatException e) {
             showError("Por favor ingrese valores numéricos válidos");
+            return;
         }
+
+        // La escritura va en segundo plano: puede esperar el lock de escritura
+        boolean updating = existingProduct != null;
+        setSaving(true);
+        BackgroundTasks.shared().submit(
+            SAVE_REQUEST,
+            () -> {
+                if (updating) {
+                    productService.updateProduct(product);
+                } else {
+                    productService.addProduct(product);
+                }
+                return product;
+            },
+            saved -> {
+                setSaving(false);
+                if (onSaveCallback != null) {
+                    onSaveCallback.run();
+                }
+                close();
+            },
+            error -> {
+                setSaving(false);
+                if (error instanceof ValidationException) {
+                    showValidationErrors((ValidationException) error);
+                } else {
+                    showError("Error al guardar: " + error.getMessage());
+                }
+            }
+        );
+    }
+
+    private void setSaving(boolean saving) {
+        saveButton.setDisable(saving);
+        addBrandButton.setDisable(saving);
     }
 
     private boolean validateForm() {
@@ -302,19 +325,26 @@ public class ProductModalController {
         
         dialog.showAndWait().ifPresent(name -> {
             if (!name.trim().isEmpty()) {
-                try {
-                    Brand newBrand = new Brand(0, name.trim());
-                    brandService.addBrand(newBrand);
-                    loadComboBoxes();
-                    
-                    // Seleccionar la nueva marca
-                    Brand createdBrand = brandService.getBrandByName(name.trim());
-                    if (createdBrand != null) {
-                        brandComboBox.getSelectionModel().select(createdBrand);
+                setSaving(true);
+                BackgroundTasks.shared().submit(
+                    BRAND_REQUEST,
+                    () -> {
+                        brandService.addBrand(new Brand(0, name.trim()));
+                        return brandService.getBrandByName(name.trim());
+                    },
+                    createdBrand -> {
+                        setSaving(false);
+                        loadComboBoxes();
+                        // Seleccionar la nueva marca
+                        if (createdBrand != null) {
+                            brandComboBox.getSelectionModel().select(createdBrand);
+                        }
+                    },
+                    error -> {
+                        setSaving(false);
+                        showError("Error al crear marca: " + error.getMessage());
                     }
-                } catch (AlmacenException e) {
-                    showError("Error al crear marca: " + e.getMessage());
-                }
+                );
             }
         });
     }
@@ -5,8 +5,11 @@ import com.mycompany.almacen.model.Invoice;
 import com.mycompany.almacen.model.InvoiceItem;
 import com.mycompany.almacen.service.ProductService;
 import com.mycompany.almacen.service.InvoiceService;
-import com.mycompany.almacen.exception.AlmacenException;
-import com.mycompany.almacen.util.PdfGenerator;
+import com.mycompany.almacen.exception.StockConflictException;
+import com.mycompany.almacen.util.BackgroundTasks;
+import com.mycompany.almacen.util.Money;
+import com.mycompany.almacen.util.PdfRenderService;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
@@ -15,6 +18,7 @@ import javafx.collections.ObservableList;
 import javafx.util.Callback;
 
 import java.util.*;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 import java.io.File;
 
@@ -56,6 +60,7 @@ public class QuickSaleModalController {
 
     private ProductService productService;
     private InvoiceService invoiceService;
+    private PdfRenderService pdfRenderService;
     private ObservableList<Product> products;
     private Map<Integer, CartItem> cart;
     private Runnable onCloseCallback;
@@ -67,9 +72,11 @@ public class QuickSaleModalController {
         this.cart = new HashMap<>();
     }
 
-    public void initialize(ProductService productService, InvoiceService invoiceService, Runnable onCloseCallback) {
+    public void initialize(ProductService productService, InvoiceService invoiceService,
+                           PdfRenderService pdfRenderService, Runnable onCloseCallback) {
         this.productService = productService;
         this.invoiceService = invoiceService;
+        this.pdfRenderService = pdfRenderService;
         this.onCloseCallback = onCloseCallback;
         
         setupTable();
@@ -158,12 +165,17 @@ public class QuickSaleModalController {
     }
 
     private void loadProducts() {
-        try {
-            products.setAll(productService.getAllProducts());
-            productTable.setItems(products);
-        } catch (AlmacenException e) {
-            showError("Error al cargar productos: " + e.getMessage());
-        }
+        BackgroundTasks.shared().submit(
+            "quick-sale-products",
+            productService::getAllProducts,
+            loaded -> {
+                products.setAll(loaded);
+                String term = productSearchField.getText();
+                filterProducts(term != null ? term.trim() : "");
+                refreshCart(loaded);
+            },
+            error -> showError("Error al cargar productos: " + error.getMessage())
+        );
     }
 
     private void filterProducts(String searchTerm) {
@@ -192,8 +204,8 @@ public class QuickSaleModalController {
             this.quantity = quantity;
         }
 
-        double getTotal() {
-            return product.getPrice() * quantity;
+        long getTotalCents() {
+            return product.getPriceCents() * quantity;
         }
     }
 
@@ -217,6 +229,32 @@ public class QuickSaleModalController {
         renderCart();
     }
 
+    /**
+     * Cambia los productos del carrito por los recién cargados y ajusta las
+     * cantidades al stock actual, que otra caja pudo haber vendido.
+     */
+    private void refreshCart(List<Product> loaded) {
+        if (cart.isEmpty()) {
+            return;
+        }
+        Map<Integer, Product> byId = new HashMap<>();
+        for (Product product : loaded) {
+            byId.put(product.getId(), product);
+        }
+        Iterator<CartItem> items = cart.values().iterator();
+        while (items.hasNext()) {
+            CartItem item = items.next();
+            Product current = byId.get(item.product.getId());
+            if (current == null || current.getStock() <= 0) {
+                items.remove();
+            } else {
+                item.product = current;
+                item.quantity = Math.min(item.quantity, current.getStock());
+            }
+        }
+        renderCart();
+    }
+
     private void renderCart() {
         cartItems.getChildren().clear();
         
@@ -260,7 +298,7 @@ public class QuickSaleModalController {
         plusBtn.getStyleClass().add("icon-button");
         plusBtn.setOnAction(e -> updateQuantity(item.product.getId(), item.quantity + 1));
         
-        Label itemTotalLabel = new Label(String.format("$%.2f", item.getTotal()));
+        Label itemTotalLabel = new Label(String.format("$%.2f", Money.toAmount(item.getTotalCents())));
         itemTotalLabel.setStyle("-fx-font-weight: 700; -fx-text-fill: -primary;");
         
         Button removeBtn = new Button("🗑");
@@ -295,16 +333,18 @@ public class QuickSaleModalController {
     }
 
     private void updateTotals() {
-        double subtotal = cart.values().stream()
-            .mapToDouble(CartItem::getTotal)
-            .sum();
-        
-        double tax = subtotal * TAX_RATE;
-        double total = subtotal + tax;
+        long subtotalCents = getSubtotalCents();
+        long taxCents = Math.round(subtotalCents * TAX_RATE);
 
-        subtotalLabel.setText(String.format("$%.2f", subtotal));
-        taxLabel.setText(String.format("$%.2f", tax));
-        totalLabel.setText(String.format("$%.2f", total));
+        subtotalLabel.setText(String.format("$%.2f", Money.toAmount(subtotalCents)));
+        taxLabel.setText(String.format("$%.2f", Money.toAmount(taxCents)));
+        totalLabel.setText(String.format("$%.2f", Money.toAmount(subtotalCents + taxCents)));
+    }
+
+    private long getSubtotalCents() {
+        return cart.values().stream()
+            .mapToLong(CartItem::getTotalCents)
+            .sum();
     }
 
     // ==================== PROCESAR VENTA ====================
@@ -322,61 +362,77 @@ public class QuickSaleModalController {
             return;
         }
 
-        try {
-            // Crear factura
-            Invoice invoice = new Invoice();
-            invoice.setCustomerName(customerName);
-            invoice.setCustomerEmail(customerEmailField.getText());
-            
-            double subtotal = cart.values().stream()
-                .mapToDouble(CartItem::getTotal)
-                .sum();
-            
-            double tax = subtotal * TAX_RATE;
-            double total = subtotal + tax;
-            
-            invoice.setTotalAmount(total);
-            invoice.setInvoiceDate(new java.sql.Date(System.currentTimeMillis()));
-            
-            // Guardar factura
-            int invoiceId = invoiceService.addInvoice(invoice);
-            
-            // Guardar items y actualizar stock
-            List<InvoiceItem> invoiceItems = new ArrayList<>();
-            for (CartItem cartItem : cart.values()) {
-                InvoiceItem invoiceItem = new InvoiceItem();
-                invoiceItem.setInvoiceId(invoiceId);
-                invoiceItem.setProductId(cartItem.product.getId());
-                invoiceItem.setProductName(cartItem.product.getName());
-                invoiceItem.setQuantity(cartItem.quantity);
-                invoiceItem.setUnitPrice(cartItem.product.getPrice());
-                
-                invoiceService.addInvoiceItem(invoiceItem);
-                invoiceService.updateProductStock(cartItem.product.getId(), -cartItem.quantity);
-                invoiceItems.add(invoiceItem);
-            }
-            
-            // Actualizar ID de la factura en los items
-            invoice.setId(invoiceId);
-            
-            // Generar PDF
-            try {
-                String pdfPath = System.getProperty("user.home") + File.separator + "Documents" + File.separator + "facturas" + File.separator + "factura_" + invoiceId + ".pdf";
-                PdfGenerator.generateInvoicePdf(invoice, invoiceItems, pdfPath);
-                showSuccess("Venta procesada exitosamente.\nFactura #" + invoiceId + "\n\nPDF guardado en:\n" + pdfPath);
-            } catch (Exception pdfEx) {
-                showSuccess("Venta procesada exitosamente. Factura #" + invoiceId + "\n\n(Nota: Error al generar PDF)");
-            }
-            
-            clearCart();
-            loadProducts(); // Recargar stock
-            
-            if (onCloseCallback != null) {
-                onCloseCallback.run();
-            }
-            
-        } catch (AlmacenException e) {
-            showError("Error al procesar venta: " + e.getMessage());
+        // Crear factura
+        Invoice invoice = new Invoice();
+        invoice.setCustomerName(customerName);
+        invoice.setCustomerEmail(customerEmailField.getText());
+        
+        long subtotalCents = getSubtotalCents();
+        long taxCents = Math.round(subtotalCents * TAX_RATE);
+        invoice.setTotalAmountCents(subtotalCents + taxCents);
+        invoice.setInvoiceDateMillis(System.currentTimeMillis());
+        
+        // Construir los ítems de la venta
+        List<InvoiceItem> invoiceItems = new ArrayList<>();
+        for (CartItem cartItem : cart.values()) {
+            InvoiceItem invoiceItem = new InvoiceItem();
+            invoiceItem.setProductId(cartItem.product.getId());
+            invoiceItem.setProductName(cartItem.product.getName());
+            invoiceItem.setQuantity(cartItem.quantity);
+            invoiceItem.setUnitPriceCents(cartItem.product.getPriceCents());
+            invoiceItems.add(invoiceItem);
+        }
+        
+        // Factura, ítems y stock se confirman juntos en el próximo commit agrupado
+        processButton.setDisable(true);
+        long start = System.nanoTime();
+        invoiceService.processSaleAsync(invoice, invoiceItems)
+            .whenComplete((invoiceId, error) -> {
+                // Latencia de esta venta, antes del salto al hilo de JavaFX
+                double latencyMillis = (System.nanoTime() - start) / 1_000_000.0;
+                Platform.runLater(() -> {
+                    processButton.setDisable(false);
+                    if (error != null) {
+                        showSaleError(error instanceof CompletionException ? error.getCause() : error);
+                    } else {
+                        onSaleCommitted(invoice, invoiceItems, invoiceId, latencyMillis);
+                    }
+                });
+            });
+    }
+
+    private void onSaleCommitted(Invoice invoice, List<InvoiceItem> invoiceItems, int invoiceId, double latencyMillis) {
+        String latency = String.format("Registrada en %.1f ms", latencyMillis);
+        
+        // Generar PDF en segundo plano: la venta ya está confirmada
+        String pdfPath = System.getProperty("user.home") + File.separator + "Documents" + File.separator + "facturas" + File.separator + "factura_" + invoiceId + ".pdf";
+        pdfRenderService.renderInvoice(invoice, invoiceItems, pdfPath)
+            .whenComplete((path, error) -> {
+                if (error != null) {
+                    Platform.runLater(() -> showError("No se pudo generar el PDF de la factura #" + invoiceId + ": " + error.getMessage()));
+                }
+            });
+        showSuccess("Venta procesada exitosamente.\nFactura #" + invoiceId + " (" + latency + ")\n\nEl PDF se guardará en:\n" + pdfPath);
+        
+        clearCart();
+        loadProducts(); // Recargar stock
+        
+        if (onCloseCallback != null) {
+            onCloseCallback.run();
+        }
+    }
+
+    private void showSaleError(Throwable error) {
+        if (error instanceof StockConflictException) {
+            // Nada se registró: se recarga el stock y el carrito se ajusta para reintentar
+            String names = ((StockConflictException) error).getProductIds().stream()
+                .map(id -> cart.containsKey(id) ? cart.get(id).product.getName() : "#" + id)
+                .collect(Collectors.joining(", "));
+            showError("Otra venta se registró antes y no alcanza el stock de: " + names
+                + "\n\nSe actualizó el stock y el carrito; revise las cantidades y vuelva a procesar.");
+            loadProducts();
+        } else {
+            showError("Error al procesar venta: " + error.getMessage());
         }
     }
 
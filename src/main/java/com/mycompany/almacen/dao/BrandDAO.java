@@ -1,6 +1,8 @@
 package com.mycompany.almacen.dao;
 
 import com.mycompany.almacen.database.DatabaseManager;
+import com.mycompany.almacen.metrics.MetricsRegistry;
+import com.mycompany.almacen.metrics.OperationStats;
 import com.mycompany.almacen.model.Brand;
 
 import java.sql.*;
@@ -9,6 +11,10 @@ import java.util.List;
 
 public class BrandDAO {
 
+    private static final OperationStats GET_BRAND_BY_ID = MetricsRegistry.shared().operation("dao.BrandDAO.getBrandById");
+    private static final OperationStats GET_ALL_BRANDS = MetricsRegistry.shared().operation("dao.BrandDAO.getAllBrands");
+    private static final OperationStats GET_BRAND_BY_NAME = MetricsRegistry.shared().operation("dao.BrandDAO.getBrandByName");
+
     public void addBrand(Brand brand) throws SQLException {
         String sql = "INSERT INTO brands(name) VALUES(?)";
         try (Connection conn = DatabaseManager.getConnection();
@@ -20,7 +26,8 @@ public class BrandDAO {
 
     public Brand getBrandById(int id) throws SQLException {
         String sql = "SELECT id, name FROM brands WHERE id = ?";
-        try (Connection conn = DatabaseManager.getConnection();
+        long start = System.nanoTime();
+        try (Connection conn = DatabaseManager.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, id);
             ResultSet rs = pstmt.executeQuery();
@@ -30,16 +37,19 @@ public class BrandDAO {
                     rs.getString("name")
                 );
             }
+        } finally {
+            GET_BRAND_BY_ID.record(start);
         }
         return null;
     }
 
     public List<Brand> getAllBrands() throws SQLException {
+        long start = System.nanoTime();
         List<Brand> brands = new ArrayList<>();
         String sql = "SELECT id, name FROM brands ORDER BY name";
-        try (Connection conn = DatabaseManager.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = DatabaseManager.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
                 brands.add(new Brand(
                     rs.getInt("id"),
@@ -47,6 +57,7 @@ public class BrandDAO {
                 ));
             }
         }
+        GET_ALL_BRANDS.record(start, brands.size());
         return brands;
     }
 
@@ -71,7 +82,8 @@ public class BrandDAO {
 
     public Brand getBrandByName(String name) throws SQLException {
         String sql = "SELECT id, name FROM brands WHERE name = ?";
-        try (Connection conn = DatabaseManager.getConnection();
+        long start = System.nanoTime();
+        try (Connection conn = DatabaseManager.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, name);
             ResultSet rs = pstmt.executeQuery();
@@ -81,7 +93,29 @@ public class BrandDAO {
                     rs.getString("name")
                 );
             }
+        } finally {
+            GET_BRAND_BY_NAME.record(start);
         }
         return null;
     }
-}
\ No newline at end of file
+
+    /**
+     * Devuelve el ID de la marca con ese nombre, creándola si no existe, sobre la
+     * conexión dada (normalmente la de una transacción en curso).
+     */
+    public int findOrCreateBrandId(Connection conn, String name) throws SQLException {
+        try (PreparedStatement insert = conn.prepareStatement(
+                "INSERT INTO brands(name) VALUES(?) ON CONFLICT(name) DO NOTHING")) {
+            insert.setString(1, name);
+            insert.executeUpdate();
+        }
+        try (PreparedStatement select = conn.prepareStatement("SELECT id FROM brands WHERE name = ?")) {
+            select.setString(1, name);
+            ResultSet rs = select.executeQuery();
+            if (!rs.next()) {
+                throw new SQLException("No se pudo crear la marca " + name);
+            }
+            return rs.getInt(1);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.mycompany.almacen.dao;
 
 import com.mycompany.almacen.database.DatabaseManager;
+import com.mycompany.almacen.metrics.MetricsRegistry;
+import com.mycompany.almacen.metrics.OperationStats;
 import com.mycompany.almacen.model.Category;
 
 import java.sql.Connection;
@@ -12,6 +14,10 @@ import java.util.List;
 
 public class CategoryDAO {
 
+    private static final OperationStats GET_CATEGORY_BY_ID = MetricsRegistry.shared().operation("dao.CategoryDAO.getCategoryById");
+    private static final OperationStats GET_ALL_CATEGORIES = MetricsRegistry.shared().operation("dao.CategoryDAO.getAllCategories");
+    private static final OperationStats GET_CATEGORY_BY_NAME = MetricsRegistry.shared().operation("dao.CategoryDAO.getCategoryByName");
+
     public void addCategory(Category category) throws SQLException {
         String sql = "INSERT INTO categories (name, description) VALUES (?, ?)";
         try (Connection conn = DatabaseManager.getConnection();
@@ -24,7 +30,8 @@ public class CategoryDAO {
 
     public Category getCategoryById(int id) throws SQLException {
         String sql = "SELECT * FROM categories WHERE id = ?";
-        try (Connection conn = DatabaseManager.getConnection();
+        long start = System.nanoTime();
+        try (Connection conn = DatabaseManager.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, id);
             ResultSet rs = pstmt.executeQuery();
@@ -35,14 +42,17 @@ public class CategoryDAO {
                     rs.getString("description")
                 );
             }
+        } finally {
+            GET_CATEGORY_BY_ID.record(start);
         }
         return null;
     }
 
     public List<Category> getAllCategories() throws SQLException {
+        long start = System.nanoTime();
         List<Category> categories = new ArrayList<>();
         String sql = "SELECT * FROM categories ORDER BY name";
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
@@ -53,6 +63,7 @@ public class CategoryDAO {
                 ));
             }
         }
+        GET_ALL_CATEGORIES.record(start, categories.size());
         return categories;
     }
 
@@ -78,7 +89,8 @@ public class CategoryDAO {
 
     public Category getCategoryByName(String name) throws SQLException {
         String sql = "SELECT * FROM categories WHERE name = ?";
-        try (Connection conn = DatabaseManager.getConnection();
+        long start = System.nanoTime();
+        try (Connection conn = DatabaseManager.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, name);
             ResultSet rs = pstmt.executeQuery();
@@ -89,7 +101,29 @@ public class CategoryDAO {
                     rs.getString("description")
                 );
             }
+        } finally {
+            GET_CATEGORY_BY_NAME.record(start);
         }
         return null;
     }
-}
\ No newline at end of file
+
+    /**
+     * Devuelve el ID de la categoría con ese nombre, creándola si no existe, sobre
+     * la conexión dada (normalmente la de una transacción en curso).
+     */
+    public int findOrCreateCategoryId(Connection conn, String name) throws SQLException {
+        try (PreparedStatement insert = conn.prepareStatement(
+                "INSERT INTO categories(name) VALUES(?) ON CONFLICT(name) DO NOTHING")) {
+            insert.setString(1, name);
+            insert.executeUpdate();
+        }
+        try (PreparedStatement select = conn.prepareStatement("SELECT id FROM categories WHERE name = ?")) {
+            select.setString(1, name);
+            ResultSet rs = select.executeQuery();
+            if (!rs.next()) {
+                throw new SQLException("No se pudo crear la categoría " + name);
+            }
+            return rs.getInt(1);
+        }
+    }
+}
@@ -1,18 +1,37 @@
 package com.mycompany.almacen.dao;
 
 import com.mycompany.almacen.database.DatabaseManager;
+import com.mycompany.almacen.metrics.MetricsRegistry;
+import com.mycompany.almacen.metrics.OperationStats;
 import com.mycompany.almacen.model.Invoice;
+import com.mycompany.almacen.model.InvoiceLine;
 
 
+import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Date;
-import java.text.SimpleDateFormat;
 
+/**
+ * invoice_date se guarda como INTEGER (epoch millis) y total_amount como INTEGER (centavos).
+ */
 public class InvoiceDAO {
 
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    private static final OperationStats ADD_INVOICE = MetricsRegistry.shared().operation("dao.InvoiceDAO.addInvoice");
+    private static final OperationStats GET_INVOICE_BY_ID = MetricsRegistry.shared().operation("dao.InvoiceDAO.getInvoiceById");
+    private static final OperationStats GET_ALL_INVOICES = MetricsRegistry.shared().operation("dao.InvoiceDAO.getAllInvoices");
+    private static final OperationStats GET_INVOICES_PAGE = MetricsRegistry.shared().operation("dao.InvoiceDAO.getInvoicesPage");
+    private static final OperationStats STREAM_INVOICE_LINES = MetricsRegistry.shared().operation("dao.InvoiceDAO.streamInvoiceLines");
+
+    private static final int EXPORT_FETCH_SIZE = 512;
+
+    /**
+     * Recibe cada fila factura + ítem. Devuelve false para detener el recorrido.
+     */
+    @FunctionalInterface
+    public interface InvoiceLineVisitor {
+        boolean visit(InvoiceLine line) throws IOException;
+    }
 
     public int addInvoice(Invoice invoice) throws SQLException {
         try (Connection conn = DatabaseManager.getConnection()) {
@@ -21,12 +40,13 @@ public class InvoiceDAO {
     }
 
     public int addInvoice(Connection conn, Invoice invoice) throws SQLException {
+        long start = System.nanoTime();
         String sql = "INSERT INTO invoices(invoice_date, customer_name, total_amount, invoice_type, description) VALUES(?,?,?,?,?)";
         int invoiceId = -1;
         try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setString(1, DATE_FORMAT.format(invoice.getInvoiceDate()));
+            pstmt.setLong(1, invoice.getInvoiceDateMillis());
             pstmt.setString(2, invoice.getCustomerName());
-            pstmt.setDouble(3, invoice.getTotalAmount());
+            pstmt.setLong(3, invoice.getTotalAmountCents());
             pstmt.setString(4, invoice.getInvoiceType() != null ? invoice.getInvoiceType().toString() : "SALE");
             pstmt.setString(5, invoice.getDescription());
             pstmt.executeUpdate();
@@ -37,63 +57,157 @@ public class InvoiceDAO {
                 }
             }
         }
+        ADD_INVOICE.record(start);
         return invoiceId;
     }
 
     public Invoice getInvoiceById(int id) throws SQLException {
+        long start = System.nanoTime();
         String sql = "SELECT id, invoice_date, customer_name, total_amount, invoice_type, description FROM invoices WHERE id = ?";
         Invoice invoice = null;
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, id);
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
-                Date invoiceDate = DATE_FORMAT.parse(rs.getString("invoice_date"));
-                invoice = new Invoice(
-                    rs.getInt("id"),
-                    invoiceDate,
-                    rs.getString("customer_name"),
-                    rs.getDouble("total_amount"),
-                    Invoice.InvoiceType.valueOf(rs.getString("invoice_type")),
-                    rs.getString("description")
-                );
+                invoice = mapInvoice(rs);
             }
-        } catch (java.text.ParseException e) {
-            throw new SQLException("Error parsing date: " + e.getMessage());
         }
+        GET_INVOICE_BY_ID.record(start);
         return invoice;
     }
 
     public List<Invoice> getAllInvoices() throws SQLException {
+        long start = System.nanoTime();
         List<Invoice> invoices = new ArrayList<>();
         String sql = "SELECT id, invoice_date, customer_name, total_amount, invoice_type, description FROM invoices ORDER BY invoice_date DESC";
-        try (Connection conn = DatabaseManager.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = DatabaseManager.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
-                Date invoiceDate = DATE_FORMAT.parse(rs.getString("invoice_date"));
-                invoices.add(new Invoice(
-                    rs.getInt("id"),
-                    invoiceDate,
-                    rs.getString("customer_name"),
-                    rs.getDouble("total_amount"),
-                    Invoice.InvoiceType.valueOf(rs.getString("invoice_type")),
-                    rs.getString("description")
-                ));
+                invoices.add(mapInvoice(rs));
             }
-        } catch (java.text.ParseException e) {
-            throw new SQLException("Error parsing date: " + e.getMessage());
         }
+        GET_ALL_INVOICES.record(start, invoices.size());
         return invoices;
     }
 
+    /**
+     * Obtiene una página de facturas, de la más reciente a la más antigua, a partir
+     * del cursor {@code after} (última factura de la página anterior, o null para la
+     * primera). {@code type} filtra por tipo si no es null. Se pagina por ID con keyset.
+     */
+    public KeysetPage<Invoice> getInvoicesPage(Invoice.InvoiceType type, Invoice after, int pageSize) throws SQLException {
+        long start = System.nanoTime();
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, invoice_date, customer_name, total_amount, invoice_type, description FROM invoices WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (type != null) {
+            sql.append(" AND invoice_type = ?");
+            params.add(type.toString());
+        }
+        if (after != null) {
+            sql.append(" AND id < ?");
+            params.add(after.getId());
+        }
+        sql.append(" ORDER BY id DESC LIMIT ?");
+        params.add(pageSize + 1);
+
+        List<Invoice> invoices = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                invoices.add(mapInvoice(rs));
+            }
+        }
+        boolean hasMore = invoices.size() > pageSize;
+        if (hasMore) {
+            invoices.remove(invoices.size() - 1);
+        }
+        GET_INVOICES_PAGE.record(start, invoices.size());
+        return new KeysetPage<>(invoices, hasMore);
+    }
+
+    /**
+     * Número de filas que produce {@link #streamInvoiceLines}: un ítem por fila,
+     * más una fila por cada factura sin ítems.
+     */
+    public long countInvoiceLines() throws SQLException {
+        String sql = "SELECT COUNT(*) FROM invoices i LEFT JOIN invoice_items ii ON ii.invoice_id = i.id";
+        try (Connection conn = DatabaseManager.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Recorre facturas e ítems en orden de factura con un cursor de solo avance,
+     * sin cargar la historia en memoria. Toda la lectura ve una misma instantánea
+     * de la base (WAL). Devuelve la cantidad de filas visitadas.
+     */
+    public long streamInvoiceLines(InvoiceLineVisitor visitor) throws SQLException, IOException {
+        long start = System.nanoTime();
+        String sql = "SELECT i.id, i.invoice_date, i.customer_name, i.invoice_type, i.total_amount, i.description, " +
+                "ii.product_id, p.name AS product_name, ii.quantity, ii.unit_price " +
+                "FROM invoices i " +
+                "LEFT JOIN invoice_items ii ON ii.invoice_id = i.id " +
+                "LEFT JOIN products p ON p.id = ii.product_id " +
+                "ORDER BY i.id, ii.id";
+        InvoiceLine line = new InvoiceLine();
+        long rows = 0;
+        try (Connection conn = DatabaseManager.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(EXPORT_FETCH_SIZE);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    line.setInvoiceId(rs.getInt(1));
+                    line.setInvoiceDateMillis(rs.getLong(2));
+                    line.setCustomerName(rs.getString(3));
+                    line.setInvoiceType(rs.getString(4));
+                    line.setTotalAmountCents(rs.getLong(5));
+                    line.setDescription(rs.getString(6));
+                    line.setProductId(rs.getInt(7));
+                    line.setProductName(rs.getString(8));
+                    line.setQuantity(rs.getInt(9));
+                    line.setUnitPriceCents(rs.getLong(10));
+                    rows++;
+                    if (!visitor.visit(line)) {
+                        break;
+                    }
+                }
+            }
+        }
+        STREAM_INVOICE_LINES.record(start, rows);
+        return rows;
+    }
+
+    private static Invoice mapInvoice(ResultSet rs) throws SQLException {
+        Invoice invoice = new Invoice(
+            rs.getInt("id"),
+            null,
+            rs.getString("customer_name"),
+            0,
+            Invoice.InvoiceType.valueOf(rs.getString("invoice_type")),
+            rs.getString("description")
+        );
+        // Solo el long: el Date se crea si alguien lo pide
+        invoice.setInvoiceDateMillis(rs.getLong("invoice_date"));
+        invoice.setTotalAmountCents(rs.getLong("total_amount"));
+        return invoice;
+    }
+
     public void updateInvoice(Invoice invoice) throws SQLException {
         String sql = "UPDATE invoices SET invoice_date = ?, customer_name = ?, total_amount = ? WHERE id = ?";
         try (Connection conn = DatabaseManager.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, DATE_FORMAT.format(invoice.getInvoiceDate()));
+            pstmt.setLong(1, invoice.getInvoiceDateMillis());
             pstmt.setString(2, invoice.getCustomerName());
-            pstmt.setDouble(3, invoice.getTotalAmount());
+            pstmt.setLong(3, invoice.getTotalAmountCents());
             pstmt.setInt(4, invoice.getId());
             pstmt.executeUpdate();
         }
@@ -1,6 +1,8 @@
 package com.mycompany.almacen.dao;
 
 import com.mycompany.almacen.database.DatabaseManager;
+import com.mycompany.almacen.metrics.MetricsRegistry;
+import com.mycompany.almacen.metrics.OperationStats;
 import com.mycompany.almacen.model.InvoiceItem;
 
 import java.sql.*;
@@ -9,6 +11,9 @@ import java.util.List;
 
 public class InvoiceItemDAO {
 
+    private static final OperationStats ADD_INVOICE_ITEMS = MetricsRegistry.shared().operation("dao.InvoiceItemDAO.addInvoiceItems");
+    private static final OperationStats GET_INVOICE_ITEMS_BY_INVOICE_ID = MetricsRegistry.shared().operation("dao.InvoiceItemDAO.getInvoiceItemsByInvoiceId");
+
     public void addInvoiceItem(InvoiceItem item) throws SQLException {
         try (Connection conn = DatabaseManager.getConnection()) {
             addInvoiceItem(conn, item);
@@ -21,29 +26,52 @@ public class InvoiceItemDAO {
             pstmt.setInt(1, item.getInvoiceId());
             pstmt.setInt(2, item.getProductId());
             pstmt.setInt(3, item.getQuantity());
-            pstmt.setDouble(4, item.getUnitPrice());
+            pstmt.setLong(4, item.getUnitPriceCents());
             pstmt.executeUpdate();
         }
     }
 
+    /**
+     * Inserta todos los ítems como un único batch JDBC sobre la conexión dada.
+     */
+    public void addInvoiceItems(Connection conn, List<InvoiceItem> items) throws SQLException {
+        long start = System.nanoTime();
+        String sql = "INSERT INTO invoice_items(invoice_id, product_id, quantity, unit_price) VALUES(?,?,?,?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (InvoiceItem item : items) {
+                pstmt.setInt(1, item.getInvoiceId());
+                pstmt.setInt(2, item.getProductId());
+                pstmt.setInt(3, item.getQuantity());
+                pstmt.setLong(4, item.getUnitPriceCents());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+        ADD_INVOICE_ITEMS.record(start, items.size());
+    }
+
     public List<InvoiceItem> getInvoiceItemsByInvoiceId(int invoiceId) throws SQLException {
+        long start = System.nanoTime();
         List<InvoiceItem> items = new ArrayList<>();
         String sql = "SELECT ii.id, ii.invoice_id, ii.product_id, ii.quantity, ii.unit_price, p.name as product_name " +
                 "FROM invoice_items ii JOIN products p ON ii.product_id = p.id WHERE ii.invoice_id = ?";
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, invoiceId);
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
-                items.add(new InvoiceItem(
+                InvoiceItem item = new InvoiceItem(
                         rs.getInt("id"),
                         rs.getInt("invoice_id"),
                         rs.getInt("product_id"),
                         rs.getString("product_name"),
                         rs.getInt("quantity"),
-                        rs.getDouble("unit_price")));
+                        0);
+                item.setUnitPriceCents(rs.getLong("unit_price"));
+                items.add(item);
             }
         }
+        GET_INVOICE_ITEMS_BY_INVOICE_ID.record(start, items.size());
         return items;
     }
 
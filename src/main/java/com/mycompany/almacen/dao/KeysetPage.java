@@ -0,0 +1,29 @@
+package com.mycompany.almacen.dao;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Página de resultados obtenida por keyset (WHERE clave > última ORDER BY clave LIMIT n).
+ * El último elemento sirve como cursor para pedir la página siguiente.
+ */
+public class KeysetPage<T> {
+
+    private final List<T> items;
+    private final boolean hasMore;
+
+    public KeysetPage(List<T> items, boolean hasMore) {
+        this.items = Collections.unmodifiableList(items);
+        this.hasMore = hasMore;
+    }
+
+    public List<T> getItems() { return items; }
+    public boolean hasMore() { return hasMore; }
+
+    /**
+     * Último elemento de la página, o null si está vacía.
+     */
+    public T getLast() {
+        return items.isEmpty() ? null : items.get(items.size() - 1);
+    }
+}
@@ -0,0 +1,87 @@
+package com.mycompany.almacen.dao;
+
+import com.mycompany.almacen.database.DatabaseManager;
+import com.mycompany.almacen.metrics.MetricsRegistry;
+import com.mycompany.almacen.metrics.OperationStats;
+import com.mycompany.almacen.model.DashboardKpis;
+import com.mycompany.almacen.util.DateCodec;
+
+import java.sql.*;
+import java.time.LocalDate;
+
+/**
+ * Consultas agregadas para el Dashboard. Cada tabla se resume con una sola
+ * consulta, sin materializar filas en memoria.
+ */
+public class KpiDAO {
+
+    public static final int LOW_STOCK_THRESHOLD = 10;
+
+    private static final OperationStats GET_DASHBOARD_KPIS = MetricsRegistry.shared().operation("dao.KpiDAO.getDashboardKpis");
+    private static final OperationStats VISIT_STOCK_LEVELS = MetricsRegistry.shared().operation("dao.KpiDAO.visitStockLevels");
+
+    /**
+     * Recibe precio y stock de cada producto sin crear objetos por fila.
+     */
+    @FunctionalInterface
+    public interface StockLevelVisitor {
+        void visit(int productId, long priceCents, int stock);
+    }
+
+    public DashboardKpis getDashboardKpis(LocalDate day) throws SQLException {
+        String productSql = "SELECT COALESCE(SUM(price * stock), 0) AS inventory_value, " +
+                "COALESCE(SUM(CASE WHEN stock <= ? THEN 1 ELSE 0 END), 0) AS low_stock, " +
+                "COUNT(*) AS total_products FROM products";
+        // invoice_date está en epoch millis: el rango [inicio del día, inicio del día
+        // siguiente) en la zona local usa el índice de invoice_date.
+        String salesSql = "SELECT COALESCE(SUM(total_amount), 0) AS daily_sales, COUNT(*) AS daily_count " +
+                "FROM invoices WHERE invoice_date >= ? AND invoice_date < ?";
+
+        long start = System.nanoTime();
+        try (Connection conn = DatabaseManager.getReadConnection()) {
+            long inventoryValueCents;
+            int lowStock;
+            int totalProducts;
+            try (PreparedStatement pstmt = conn.prepareStatement(productSql)) {
+                pstmt.setInt(1, LOW_STOCK_THRESHOLD);
+                ResultSet rs = pstmt.executeQuery();
+                rs.next();
+                inventoryValueCents = rs.getLong("inventory_value");
+                lowStock = rs.getInt("low_stock");
+                totalProducts = rs.getInt("total_products");
+            }
+
+            long dailySalesCents;
+            int dailyCount;
+            try (PreparedStatement pstmt = conn.prepareStatement(salesSql)) {
+                pstmt.setLong(1, DateCodec.startOfDayMillis(day));
+                pstmt.setLong(2, DateCodec.startOfDayMillis(day.plusDays(1)));
+                ResultSet rs = pstmt.executeQuery();
+                rs.next();
+                dailySalesCents = rs.getLong("daily_sales");
+                dailyCount = rs.getInt("daily_count");
+            }
+
+            return new DashboardKpis(inventoryValueCents, lowStock, totalProducts, dailySalesCents, dailyCount);
+        } finally {
+            GET_DASHBOARD_KPIS.record(start);
+        }
+    }
+
+    /**
+     * Recorre (id, precio, stock) de todos los productos.
+     */
+    public void visitStockLevels(StockLevelVisitor visitor) throws SQLException {
+        String sql = "SELECT id, price, stock FROM products";
+        long start = System.nanoTime();
+        try (Connection conn = DatabaseManager.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                visitor.visit(rs.getInt(1), rs.getLong(2), rs.getInt(3));
+            }
+        } finally {
+            VISIT_STOCK_LEVELS.record(start);
+        }
+    }
+}
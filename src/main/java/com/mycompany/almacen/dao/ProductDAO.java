@@ -1,129 +1,400 @@
 package com.mycompany.almacen.dao;
 
 import com.mycompany.almacen.database.DatabaseManager;
+import com.mycompany.almacen.metrics.MetricsRegistry;
+import com.mycompany.almacen.metrics.OperationStats;
 import com.mycompany.almacen.model.Product;
+import com.mycompany.almacen.util.TextNormalizer;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class ProductDAO {
 
-    public void addProduct(Product product) throws SQLException {
+    private static final OperationStats GET_PRODUCT_BY_ID = MetricsRegistry.shared().operation("dao.ProductDAO.getProductById");
+    private static final OperationStats GET_ALL_PRODUCTS = MetricsRegistry.shared().operation("dao.ProductDAO.getAllProducts");
+    private static final OperationStats GET_ALL_PRODUCTS_WITH_NAMES = MetricsRegistry.shared().operation("dao.ProductDAO.getAllProductsWithNames");
+    private static final OperationStats GET_PRODUCTS_PAGE = MetricsRegistry.shared().operation("dao.ProductDAO.getProductsPage");
+    private static final OperationStats SEARCH_PRODUCTS_BY_NAME = MetricsRegistry.shared().operation("dao.ProductDAO.searchProductsByName");
+    private static final OperationStats SEARCH_PRODUCTS_RANKED = MetricsRegistry.shared().operation("dao.ProductDAO.searchProductsRanked");
+    private static final OperationStats UPDATE_PRODUCT_STOCK_BATCH = MetricsRegistry.shared().operation("dao.ProductDAO.updateProductStockBatch");
+    private static final OperationStats UPSERT_PRODUCTS_BATCH = MetricsRegistry.shared().operation("dao.ProductDAO.upsertProductsBatch");
+
+    // Descuento condicional: la fila solo cambia si alcanza el stock, sin bloquear
+    // otras cajas entre la lectura y la venta
+    private static final String UPDATE_STOCK_SQL =
+            "UPDATE products SET stock = stock + ?, version = version + 1 WHERE id = ? AND stock >= ?";
+
+    public int addProduct(Product product) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            return addProduct(conn, product);
+        }
+    }
+
+    /**
+     * Inserta el producto y devuelve el ID generado (también se asigna al producto).
+     */
+    public int addProduct(Connection conn, Product product) throws SQLException {
         String sql = "INSERT INTO products(name, description, price, stock, category_id, brand_id, model) VALUES(?,?,?,?,?,?,?)";
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        int productId = -1;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, product.getName());
             pstmt.setString(2, product.getDescription());
-            pstmt.setDouble(3, product.getPrice());
+            pstmt.setLong(3, product.getPriceCents());
             pstmt.setInt(4, product.getStock());
             pstmt.setInt(5, product.getCategoryId()); // Add category_id
             pstmt.setInt(6, product.getBrandId());
             pstmt.setString(7, product.getModel());
             pstmt.executeUpdate();
+
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    productId = generatedKeys.getInt(1);
+                    product.setId(productId);
+                }
+            }
         }
+        return productId;
     }
 
     public Product getProductById(int id) throws SQLException {
-        String sql = "SELECT id, name, description, price, stock, category_id, brand_id, model FROM products WHERE id = ?";
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseManager.getReadConnection()) {
+            return getProductById(conn, id);
+        }
+    }
+
+    public Product getProductById(Connection conn, int id) throws SQLException {
+        String sql = "SELECT id, name, description, price, stock, category_id, brand_id, model, version FROM products WHERE id = ?";
+        long start = System.nanoTime();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, id);
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
-                return new Product(
-                    rs.getInt("id"),
-                    rs.getString("name"),
-                    rs.getString("description"),
-                    rs.getDouble("price"),
-                    rs.getInt("stock"),
-                    rs.getInt("category_id"), // Add category_id
-                    rs.getInt("brand_id"),
-                    rs.getString("model")
-                );
+                return mapProduct(rs);
             }
+        } finally {
+            GET_PRODUCT_BY_ID.record(start);
         }
         return null;
     }
 
     public List<Product> getAllProducts() throws SQLException {
+        long start = System.nanoTime();
         List<Product> products = new ArrayList<>();
-        String sql = "SELECT id, name, description, price, stock, category_id, brand_id, model FROM products";
-        try (Connection conn = DatabaseManager.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        String sql = "SELECT id, name, description, price, stock, category_id, brand_id, model, version FROM products";
+        try (Connection conn = DatabaseManager.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
-                products.add(new Product(
-                    rs.getInt("id"),
-                    rs.getString("name"),
-                    rs.getString("description"),
-                    rs.getDouble("price"),
-                    rs.getInt("stock"),
-                    rs.getInt("category_id"), // Add category_id
-                    rs.getInt("brand_id"),
-                    rs.getString("model")
-                ));
+                products.add(mapProduct(rs));
             }
         }
+        GET_ALL_PRODUCTS.record(start, products.size());
         return products;
     }
 
-    public void updateProduct(Product product) throws SQLException {
-        String sql = "UPDATE products SET name = ?, description = ?, price = ?, stock = ?, category_id = ?, brand_id = ?, model = ? WHERE id = ?";
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    /**
+     * Obtiene todos los productos con los nombres de categoría y marca resueltos
+     * en una sola consulta, para que la UI no consulte referencias por celda.
+     */
+    public List<Product> getAllProductsWithNames() throws SQLException {
+        long start = System.nanoTime();
+        List<Product> products = new ArrayList<>();
+        String sql = "SELECT p.id, p.name, p.description, p.price, p.stock, p.category_id, p.brand_id, p.model, p.version, " +
+                "c.name AS category_name, b.name AS brand_name " +
+                "FROM products p " +
+                "LEFT JOIN categories c ON c.id = p.category_id " +
+                "LEFT JOIN brands b ON b.id = p.brand_id " +
+                "ORDER BY p.id";
+        try (Connection conn = DatabaseManager.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                products.add(mapProductWithNames(rs));
+            }
+        }
+        GET_ALL_PRODUCTS_WITH_NAMES.record(start, products.size());
+        return products;
+    }
+
+    /**
+     * Obtiene una página de productos (con nombres resueltos) a partir del cursor
+     * {@code after}, que es el último producto de la página anterior o null para
+     * la primera. Usa keyset en lugar de OFFSET, así que el coste no crece con la
+     * profundidad del scroll.
+     */
+    public KeysetPage<Product> getProductsPage(ProductPageRequest request, Product after) throws SQLException {
+        long start = System.nanoTime();
+        String column = request.getSortField().getColumn();
+        String direction = request.isDescending() ? "DESC" : "ASC";
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(
+                "SELECT p.id, p.name, p.description, p.price, p.stock, p.category_id, p.brand_id, p.model, p.version, " +
+                "c.name AS category_name, b.name AS brand_name " +
+                "FROM products p " +
+                "LEFT JOIN categories c ON c.id = p.category_id " +
+                "LEFT JOIN brands b ON b.id = p.brand_id " +
+                "WHERE 1 = 1");
+        if (request.getCategoryId() != null) {
+            sql.append(" AND p.category_id = ?");
+            params.add(request.getCategoryId());
+        }
+        if (request.getBrandId() != null) {
+            sql.append(" AND p.brand_id = ?");
+            params.add(request.getBrandId());
+        }
+        if (request.getMaxStock() != null) {
+            sql.append(" AND p.stock <= ?");
+            params.add(request.getMaxStock());
+        }
+        if (after != null) {
+            String comparison = request.isDescending() ? "<" : ">";
+            if (request.getSortField() == ProductPageRequest.SortField.ID) {
+                sql.append(" AND p.id ").append(comparison).append(" ?");
+            } else {
+                sql.append(" AND (").append(column).append(", p.id) ").append(comparison).append(" (?, ?)");
+                params.add(request.getSortField().valueOf(after));
+            }
+            params.add(after.getId());
+        }
+        sql.append(" ORDER BY ").append(column).append(' ').append(direction);
+        if (request.getSortField() != ProductPageRequest.SortField.ID) {
+            sql.append(", p.id ").append(direction);
+        }
+        sql.append(" LIMIT ?");
+        // Se pide una fila de más para saber si hay otra página sin un COUNT(*)
+        params.add(request.getPageSize() + 1);
+
+        List<Product> products = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                products.add(mapProductWithNames(rs));
+            }
+        }
+        boolean hasMore = products.size() > request.getPageSize();
+        if (hasMore) {
+            products.remove(products.size() - 1);
+        }
+        GET_PRODUCTS_PAGE.record(start, products.size());
+        return new KeysetPage<>(products, hasMore);
+    }
+
+    private static Product mapProduct(ResultSet rs) throws SQLException {
+        Product product = new Product(
+            rs.getInt("id"),
+            rs.getString("name"),
+            rs.getString("description"),
+            0,
+            rs.getInt("stock"),
+            rs.getInt("category_id"),
+            rs.getInt("brand_id"),
+            rs.getString("model")
+        );
+        product.setPriceCents(rs.getLong("price"));
+        product.setVersion(rs.getInt("version"));
+        return product;
+    }
+
+    private static Product mapProductWithNames(ResultSet rs) throws SQLException {
+        Product product = mapProduct(rs);
+        String categoryName = rs.getString("category_name");
+        String brandName = rs.getString("brand_name");
+        product.setCategoryName(categoryName != null ? categoryName : "General");
+        product.setBrandName(brandName != null ? brandName : "General");
+        return product;
+    }
+
+    public boolean updateProduct(Product product) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            return updateProduct(conn, product);
+        }
+    }
+
+    /**
+     * Actualiza el producto solo si su versión sigue siendo la leída. Devuelve
+     * false si otra escritura lo cambió antes (o ya no existe); si se aplica,
+     * el producto queda con la versión nueva.
+     */
+    public boolean updateProduct(Connection conn, Product product) throws SQLException {
+        String sql = "UPDATE products SET name = ?, description = ?, price = ?, stock = ?, category_id = ?, brand_id = ?, model = ?, " +
+                "version = version + 1 WHERE id = ? AND version = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, product.getName());
             pstmt.setString(2, product.getDescription());
-            pstmt.setDouble(3, product.getPrice());
+            pstmt.setLong(3, product.getPriceCents());
             pstmt.setInt(4, product.getStock());
             pstmt.setInt(5, product.getCategoryId()); // Add category_id
             pstmt.setInt(6, product.getBrandId());
             pstmt.setString(7, product.getModel());
             pstmt.setInt(8, product.getId());
-            pstmt.executeUpdate();
+            pstmt.setInt(9, product.getVersion());
+            if (pstmt.executeUpdate() == 0) {
+                return false;
+            }
         }
+        product.setVersion(product.getVersion() + 1);
+        return true;
     }
 
     public void deleteProduct(int id) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            deleteProduct(conn, id);
+        }
+    }
+
+    public void deleteProduct(Connection conn, int id) throws SQLException {
         String sql = "DELETE FROM products WHERE id = ?";
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, id);
             pstmt.executeUpdate();
         }
     }
 
     public List<Product> searchProductsByName(String name) throws SQLException {
+        long start = System.nanoTime();
         List<Product> products = new ArrayList<>();
-        String sql = "SELECT id, name, description, price, stock, category_id, brand_id, model FROM products WHERE name LIKE ?";
-        try (Connection conn = DatabaseManager.getConnection();
+        String sql = "SELECT id, name, description, price, stock, category_id, brand_id, model, version FROM products WHERE name LIKE ?";
+        try (Connection conn = DatabaseManager.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, "%" + name + "%");
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
-                products.add(new Product(
-                    rs.getInt("id"),
-                    rs.getString("name"),
-                    rs.getString("description"),
-                    rs.getDouble("price"),
-                    rs.getInt("stock"),
-                    rs.getInt("category_id"), // Add category_id
-                    rs.getInt("brand_id"),
-                    rs.getString("model")
-                ));
+                products.add(mapProduct(rs));
             }
         }
+        SEARCH_PRODUCTS_BY_NAME.record(start, products.size());
         return products;
     }
 
-    public void updateProductStock(int productId, int quantityChange) throws SQLException {
-        String sql = "UPDATE products SET stock = CASE WHEN stock + ? < 0 THEN 0 ELSE stock + ? END WHERE id = ?";
-        try (Connection conn = DatabaseManager.getConnection();
+    /**
+     * Búsqueda por prefijo sobre nombre, modelo y descripción usando el índice FTS5.
+     * Devuelve como máximo {@code limit} productos ordenados por relevancia (bm25),
+     * dando más peso al nombre que al modelo y a la descripción.
+     */
+    public List<Product> searchProductsRanked(String query, int limit) throws SQLException {
+        long start = System.nanoTime();
+        List<Product> products = new ArrayList<>();
+        String match = toPrefixMatchExpression(query);
+        if (match.isEmpty()) {
+            return products;
+        }
+        String sql = "SELECT p.id, p.name, p.description, p.price, p.stock, p.category_id, p.brand_id, p.model, p.version " +
+                "FROM products_fts f JOIN products p ON p.id = f.rowid " +
+                "WHERE products_fts MATCH ? " +
+                "ORDER BY bm25(products_fts, 10.0, 5.0, 1.0) LIMIT ?";
+        try (Connection conn = DatabaseManager.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, quantityChange);
-            pstmt.setInt(2, quantityChange);
-            pstmt.setInt(3, productId);
-            pstmt.executeUpdate();
+            pstmt.setString(1, match);
+            pstmt.setInt(2, limit);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                products.add(mapProduct(rs));
+            }
+        }
+        SEARCH_PRODUCTS_RANKED.record(start, products.size());
+        return products;
+    }
+
+    /**
+     * Convierte texto libre en una expresión FTS5 donde cada palabra es un prefijo
+     * obligatorio: "galaxy s2" → "galaxy"* "s2"*. Las comillas se escapan.
+     */
+    private static String toPrefixMatchExpression(String query) {
+        String normalized = TextNormalizer.normalize(query);
+        if (normalized.isEmpty()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (String token : normalized.split(" ")) {
+            String cleaned = token.replace("\"", "\"\"");
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append('"').append(cleaned).append("\"*");
+        }
+        return sb.toString();
+    }
+
+    public boolean updateProductStock(int productId, int quantityChange) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            return updateProductStock(conn, productId, quantityChange);
+        }
+    }
+
+    /**
+     * Aplica el cambio de stock solo si no deja el stock en negativo. Devuelve
+     * false si no había stock suficiente (o el producto no existe).
+     */
+    public boolean updateProductStock(Connection conn, int productId, int quantityChange) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(UPDATE_STOCK_SQL)) {
+            bindStockChange(pstmt, productId, quantityChange);
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Aplica varios cambios de stock (productId → cambio) como un único batch JDBC
+     * sobre la conexión dada, normalmente la de una transacción en curso.
+     * Devuelve los IDs cuyo cambio no se aplicó por falta de stock; el llamador
+     * decide si revierte la transacción.
+     */
+    public List<Integer> updateProductStockBatch(Connection conn, Map<Integer, Integer> quantityChanges) throws SQLException {
+        long start = System.nanoTime();
+        List<Integer> conflicts = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(UPDATE_STOCK_SQL)) {
+            List<Integer> productIds = new ArrayList<>(quantityChanges.keySet());
+            for (Integer productId : productIds) {
+                bindStockChange(pstmt, productId, quantityChanges.get(productId));
+                pstmt.addBatch();
+            }
+            int[] counts = pstmt.executeBatch();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    conflicts.add(productIds.get(i));
+                }
+            }
+        }
+        UPDATE_PRODUCT_STOCK_BATCH.record(start, quantityChanges.size());
+        return conflicts;
+    }
+
+    private static void bindStockChange(PreparedStatement pstmt, int productId, int quantityChange) throws SQLException {
+        pstmt.setInt(1, quantityChange);
+        pstmt.setInt(2, productId);
+        pstmt.setInt(3, Math.max(0, -quantityChange));
+    }
+
+    /**
+     * Inserta o actualiza (por nombre) los productos dados como un único batch JDBC
+     * sobre la conexión dada. Un producto existente conserva su ID y recibe los
+     * valores nuevos.
+     */
+    public void upsertProductsBatch(Connection conn, List<Product> products) throws SQLException {
+        long start = System.nanoTime();
+        String sql = "INSERT INTO products(name, description, price, stock, category_id, brand_id, model) VALUES(?,?,?,?,?,?,?) " +
+                "ON CONFLICT(name) DO UPDATE SET description = excluded.description, price = excluded.price, " +
+                "stock = excluded.stock, category_id = excluded.category_id, brand_id = excluded.brand_id, " +
+                "model = excluded.model, version = products.version + 1";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (Product product : products) {
+                pstmt.setString(1, product.getName());
+                pstmt.setString(2, product.getDescription());
+                pstmt.setLong(3, product.getPriceCents());
+                pstmt.setInt(4, product.getStock());
+                pstmt.setInt(5, product.getCategoryId());
+                pstmt.setInt(6, product.getBrandId());
+                pstmt.setString(7, product.getModel());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
         }
+        UPSERT_PRODUCTS_BATCH.record(start, products.size());
     }
 }
@@ -0,0 +1,58 @@
+package com.mycompany.almacen.dao;
+
+import com.mycompany.almacen.model.Product;
+
+/**
+ * Criterios de orden y filtro para paginar productos por keyset.
+ * El orden siempre desempata por ID para que el cursor sea único.
+ */
+public class ProductPageRequest {
+
+    public enum SortField {
+        ID("p.id"),
+        NAME("p.name"),
+        PRICE("p.price"),
+        STOCK("p.stock");
+
+        private final String column;
+
+        SortField(String column) {
+            this.column = column;
+        }
+
+        String getColumn() {
+            return column;
+        }
+
+        Object valueOf(Product product) {
+            switch (this) {
+                case NAME: return product.getName();
+                case PRICE: return product.getPriceCents();
+                case STOCK: return product.getStock();
+                default: return product.getId();
+            }
+        }
+    }
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    private SortField sortField = SortField.ID;
+    private boolean descending;
+    private Integer categoryId;
+    private Integer brandId;
+    private Integer maxStock;
+    private int pageSize = DEFAULT_PAGE_SIZE;
+
+    public SortField getSortField() { return sortField; }
+    public void setSortField(SortField sortField) { this.sortField = sortField != null ? sortField : SortField.ID; }
+    public boolean isDescending() { return descending; }
+    public void setDescending(boolean descending) { this.descending = descending; }
+    public Integer getCategoryId() { return categoryId; }
+    public void setCategoryId(Integer categoryId) { this.categoryId = categoryId; }
+    public Integer getBrandId() { return brandId; }
+    public void setBrandId(Integer brandId) { this.brandId = brandId; }
+    public Integer getMaxStock() { return maxStock; }
+    public void setMaxStock(Integer maxStock) { this.maxStock = maxStock; }
+    public int getPageSize() { return pageSize; }
+    public void setPageSize(int pageSize) { this.pageSize = Math.max(1, pageSize); }
+}
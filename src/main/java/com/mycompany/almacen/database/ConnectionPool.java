@@ -0,0 +1,404 @@
+package com.mycompany.almacen.database;
+
+import com.mycompany.almacen.metrics.MetricsRegistry;
+import com.mycompany.almacen.metrics.OperationStats;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pool acotado de conexiones SQLite alineado con la semántica WAL:
+ * una única conexión de escritura y N conexiones de solo lectura.
+ *
+ * Las conexiones físicas se abren una sola vez (con los PRAGMAs del
+ * {@link SqliteProfile}) y se prestan envueltas en un proxy cuyo close() las devuelve al pool.
+ * La conexión de escritura es reentrante por hilo, de modo que un DAO
+ * invocado dentro de una transacción reutiliza la misma conexión.
+ */
+public class ConnectionPool {
+
+    private static final long LEASE_TIMEOUT_MILLIS = 30_000;
+    private static final int STATEMENT_CACHE_SIZE = 64;
+
+    // Distribución de la espera por conexión, acumulada entre pools
+    private static final OperationStats WRITER_WAIT = MetricsRegistry.shared().operation("pool.writerWait");
+    private static final OperationStats READER_WAIT = MetricsRegistry.shared().operation("pool.readerWait");
+
+    private final SqliteProfile profile;
+    private final Connection writer;
+    private final ReentrantLock writerLock = new ReentrantLock(true);
+    private final BlockingQueue<Connection> idleReaders;
+    private final List<Connection> readers;
+    private final ThreadLocal<ReaderLease> currentReader = new ThreadLocal<>();
+    private final Map<Connection, StatementCache> statementCaches = new IdentityHashMap<>();
+
+    private final AtomicLong writerLeases = new AtomicLong();
+    private final AtomicLong writerWaitNanos = new AtomicLong();
+    private final AtomicLong writerMaxWaitNanos = new AtomicLong();
+    private final AtomicLong readerLeases = new AtomicLong();
+    private final AtomicLong readerWaitNanos = new AtomicLong();
+    private final AtomicLong readerMaxWaitNanos = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, int readerCount) throws SQLException {
+        this(url, readerCount, SqliteProfile.load());
+    }
+
+    public ConnectionPool(String url, int readerCount, SqliteProfile profile) throws SQLException {
+        if (readerCount < 1) {
+            throw new IllegalArgumentException("Se requiere al menos una conexión de lectura");
+        }
+        this.profile = profile;
+        // El escritor se abre primero: crea el archivo y activa WAL antes que los lectores.
+        this.writer = openConnection(url, false);
+        this.idleReaders = new ArrayBlockingQueue<>(readerCount);
+        this.readers = new ArrayList<>(readerCount);
+        try {
+            System.out.println(profile.report(writer));
+            for (int i = 0; i < readerCount; i++) {
+                Connection reader = openConnection(url, true);
+                readers.add(reader);
+                idleReaders.add(reader);
+            }
+        } catch (SQLException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private Connection openConnection(String url, boolean readOnly) throws SQLException {
+        Connection conn = DriverManager.getConnection(url);
+        try (Statement stmt = conn.createStatement()) {
+            profile.apply(stmt, !readOnly);
+            if (readOnly) {
+                stmt.execute("PRAGMA query_only=ON");
+            } else {
+                stmt.execute("PRAGMA journal_mode=WAL");
+            }
+        }
+        conn.setAutoCommit(true);
+        statementCaches.put(conn, new StatementCache(conn, STATEMENT_CACHE_SIZE));
+        return conn;
+    }
+
+    /**
+     * Presta la conexión de escritura. Si el hilo actual ya la tiene,
+     * se devuelve un préstamo anidado sobre la misma conexión física.
+     */
+    public Connection acquireWriter() throws SQLException {
+        ensureOpen();
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = writerLock.tryLock(LEASE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrumpido esperando la conexión de escritura", e);
+        }
+        if (!acquired) {
+            timeouts.incrementAndGet();
+            throw new SQLException("Tiempo de espera agotado para la conexión de escritura");
+        }
+        recordWait(writerLeases, writerWaitNanos, writerMaxWaitNanos, WRITER_WAIT, System.nanoTime() - start);
+        return wrap(writer, this::releaseWriter);
+    }
+
+    /**
+     * Presta una conexión de lectura. Dentro de una transacción de escritura del
+     * mismo hilo se devuelve la conexión de escritura para ver sus cambios.
+     */
+    public Connection acquireReader() throws SQLException {
+        ensureOpen();
+        if (writerLock.isHeldByCurrentThread()) {
+            return acquireWriter();
+        }
+
+        ReaderLease lease = currentReader.get();
+        if (lease != null) {
+            lease.depth++;
+            readerLeases.incrementAndGet();
+            return wrap(lease.connection, this::releaseReader);
+        }
+
+        long start = System.nanoTime();
+        Connection conn;
+        try {
+            conn = idleReaders.poll(LEASE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrumpido esperando una conexión de lectura", e);
+        }
+        if (conn == null) {
+            timeouts.incrementAndGet();
+            throw new SQLException("Tiempo de espera agotado para una conexión de lectura");
+        }
+        recordWait(readerLeases, readerWaitNanos, readerMaxWaitNanos, READER_WAIT, System.nanoTime() - start);
+        currentReader.set(new ReaderLease(conn));
+        return wrap(conn, this::releaseReader);
+    }
+
+    private void releaseWriter() {
+        try {
+            if (writerLock.getHoldCount() == 1) {
+                // Préstamo externo: no dejar transacciones abiertas al siguiente usuario.
+                try {
+                    if (!writer.getAutoCommit()) {
+                        writer.rollback();
+                        writer.setAutoCommit(true);
+                    }
+                } catch (SQLException e) {
+                    System.err.println("Error restaurando la conexión de escritura: " + e.getMessage());
+                }
+            }
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    private void releaseReader() {
+        ReaderLease lease = currentReader.get();
+        if (lease == null) {
+            return;
+        }
+        if (--lease.depth == 0) {
+            currentReader.remove();
+            idleReaders.offer(lease.connection);
+        }
+    }
+
+    private Connection wrap(Connection physical, Runnable onRelease) {
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[] { Connection.class },
+            new LeasedConnectionHandler(physical, statementCaches.get(physical), onRelease)
+        );
+    }
+
+    private void recordWait(AtomicLong leases, AtomicLong total, AtomicLong max, OperationStats stats, long waited) {
+        stats.recordNanos(waited);
+        leases.incrementAndGet();
+        total.addAndGet(waited);
+        max.accumulateAndGet(waited, Math::max);
+    }
+
+    private void ensureOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("El pool de conexiones está cerrado");
+        }
+    }
+
+    /**
+     * Obtiene una instantánea de las métricas de préstamo del pool.
+     */
+    public Metrics getMetrics() {
+        long statementHits = 0;
+        long statementMisses = 0;
+        long statementEvictions = 0;
+        for (StatementCache cache : statementCaches.values()) {
+            statementHits += cache.getHits();
+            statementMisses += cache.getMisses();
+            statementEvictions += cache.getEvictions();
+        }
+        return new Metrics(
+            writerLeases.get(),
+            writerWaitNanos.get(),
+            writerMaxWaitNanos.get(),
+            writerLock.isLocked(),
+            readerLeases.get(),
+            readerWaitNanos.get(),
+            readerMaxWaitNanos.get(),
+            readers.size() - idleReaders.size(),
+            readers.size(),
+            timeouts.get(),
+            statementHits,
+            statementMisses,
+            statementEvictions
+        );
+    }
+
+    public void close() {
+        closed = true;
+        for (StatementCache cache : statementCaches.values()) {
+            cache.close();
+        }
+        closeQuietly(writer);
+        for (Connection reader : readers) {
+            closeQuietly(reader);
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            if (conn != null) {
+                conn.close();
+            }
+        } catch (SQLException e) {
+            System.err.println("Error cerrando conexión: " + e.getMessage());
+        }
+    }
+
+    private static class ReaderLease {
+        final Connection connection;
+        int depth = 1;
+
+        ReaderLease(Connection connection) {
+            this.connection = connection;
+        }
+    }
+
+    /**
+     * Proxy de una conexión prestada: close() la devuelve al pool en lugar de cerrarla
+     * y prepareStatement() pasa por la caché de sentencias de la conexión física.
+     * Las sentencias se devuelven envueltas por {@link SqlTracer}.
+     */
+    private static class LeasedConnectionHandler implements InvocationHandler {
+        private final Connection physical;
+        private final StatementCache statementCache;
+        private final Runnable onRelease;
+        private boolean released;
+
+        LeasedConnectionHandler(Connection physical, StatementCache statementCache, Runnable onRelease) {
+            this.physical = physical;
+            this.statementCache = statementCache;
+            this.onRelease = onRelease;
+        }
+
+        private PreparedStatement prepareCached(Method method, Object[] args) throws SQLException {
+            Class<?>[] types = method.getParameterTypes();
+            if (types.length == 1) {
+                return statementCache.prepare((String) args[0]);
+            }
+            if (types.length == 2 && types[1] == int.class) {
+                return statementCache.prepare((String) args[0], (Integer) args[1]);
+            }
+            return null;
+        }
+
+        private Object invokePhysical(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!released) {
+                        released = true;
+                        onRelease.run();
+                    }
+                    return null;
+                case "isClosed":
+                    return released || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "LeasedConnection[" + physical + "]";
+                default:
+                    if (released) {
+                        throw new SQLException("La conexión ya fue devuelta al pool");
+                    }
+                    if ("prepareStatement".equals(method.getName())) {
+                        PreparedStatement statement = prepareCached(method, args);
+                        if (statement == null) {
+                            statement = (PreparedStatement) invokePhysical(method, args);
+                        }
+                        return SqlTracer.trace(statement, (String) args[0], physical);
+                    }
+                    return invokePhysical(method, args);
+            }
+        }
+    }
+
+    /**
+     * Métricas de préstamo y contención del pool.
+     */
+    public static class Metrics {
+        private final long writerLeases;
+        private final long writerWaitNanos;
+        private final long writerMaxWaitNanos;
+        private final boolean writerInUse;
+        private final long readerLeases;
+        private final long readerWaitNanos;
+        private final long readerMaxWaitNanos;
+        private final int readersInUse;
+        private final int readerCount;
+        private final long timeouts;
+        private final long statementHits;
+        private final long statementMisses;
+        private final long statementEvictions;
+
+        Metrics(long writerLeases, long writerWaitNanos, long writerMaxWaitNanos, boolean writerInUse,
+                long readerLeases, long readerWaitNanos, long readerMaxWaitNanos,
+                int readersInUse, int readerCount, long timeouts,
+                long statementHits, long statementMisses, long statementEvictions) {
+            this.writerLeases = writerLeases;
+            this.writerWaitNanos = writerWaitNanos;
+            this.writerMaxWaitNanos = writerMaxWaitNanos;
+            this.writerInUse = writerInUse;
+            this.readerLeases = readerLeases;
+            this.readerWaitNanos = readerWaitNanos;
+            this.readerMaxWaitNanos = readerMaxWaitNanos;
+            this.readersInUse = readersInUse;
+            this.readerCount = readerCount;
+            this.timeouts = timeouts;
+            this.statementHits = statementHits;
+            this.statementMisses = statementMisses;
+            this.statementEvictions = statementEvictions;
+        }
+
+        public long getWriterLeases() { return writerLeases; }
+        public long getWriterWaitNanos() { return writerWaitNanos; }
+        public long getWriterMaxWaitNanos() { return writerMaxWaitNanos; }
+        public boolean isWriterInUse() { return writerInUse; }
+        public long getReaderLeases() { return readerLeases; }
+        public long getReaderWaitNanos() { return readerWaitNanos; }
+        public long getReaderMaxWaitNanos() { return readerMaxWaitNanos; }
+        public int getReadersInUse() { return readersInUse; }
+        public int getReaderCount() { return readerCount; }
+        public long getTimeouts() { return timeouts; }
+        public long getStatementHits() { return statementHits; }
+        public long getStatementMisses() { return statementMisses; }
+        public long getStatementEvictions() { return statementEvictions; }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "Pool{writer: leases=%d, avgWait=%.3fms, maxWait=%.3fms, inUse=%s; " +
+                "readers: leases=%d, avgWait=%.3fms, maxWait=%.3fms, inUse=%d/%d; timeouts=%d; " +
+                "statements: hits=%d, misses=%d, evictions=%d}",
+                writerLeases, avgMillis(writerWaitNanos, writerLeases), writerMaxWaitNanos / 1e6, writerInUse,
+                readerLeases, avgMillis(readerWaitNanos, readerLeases), readerMaxWaitNanos / 1e6,
+                readersInUse, readerCount, timeouts,
+                statementHits, statementMisses, statementEvictions
+            );
+        }
+
+        private static double avgMillis(long totalNanos, long count) {
+            return count == 0 ? 0.0 : totalNanos / 1e6 / count;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.mycompany.almacen.database;
+
+import com.mycompany.almacen.util.BackgroundTasks;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Secuencia de arranque de la base de datos.
+ *
+ * Abre el pool, aplica las migraciones pendientes y siembra los datos de
+ * ejemplo en una sola transacción sobre la conexión de escritura, y registra
+ * cuánto tardó cada fase. Puede ejecutarse en segundo plano mientras la UI
+ * carga sus vistas.
+ */
+public final class DatabaseBootstrap {
+
+    /**
+     * Resultado del arranque: versión del esquema y duración de cada fase.
+     */
+    public static final class Report {
+        private final int schemaVersion;
+        private final boolean seeded;
+        private final Map<String, Long> phaseNanos;
+
+        Report(int schemaVersion, boolean seeded, Map<String, Long> phaseNanos) {
+            this.schemaVersion = schemaVersion;
+            this.seeded = seeded;
+            this.phaseNanos = phaseNanos;
+        }
+
+        public int getSchemaVersion() { return schemaVersion; }
+        public boolean isSeeded() { return seeded; }
+
+        public long getTotalNanos() {
+            long total = 0;
+            for (long nanos : phaseNanos.values()) {
+                total += nanos;
+            }
+            return total;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("Database boot:");
+            for (Map.Entry<String, Long> phase : phaseNanos.entrySet()) {
+                sb.append(' ').append(phase.getKey()).append('=').append(formatMillis(phase.getValue()));
+            }
+            sb.append(" total=").append(formatMillis(getTotalNanos()));
+            sb.append(" (schema v").append(schemaVersion).append(seeded ? ", seeded)" : ")");
+            return sb.toString();
+        }
+
+        private static String formatMillis(long nanos) {
+            return String.format("%.1fms", nanos / 1_000_000.0);
+        }
+    }
+
+    private DatabaseBootstrap() {
+    }
+
+    /**
+     * Ejecuta el arranque en el hilo actual.
+     */
+    public static Report run() throws SQLException {
+        Map<String, Long> phases = new LinkedHashMap<>();
+        long start = System.nanoTime();
+        DatabaseManager.getPool();
+        long mark = lap(phases, "pool", start);
+
+        int version;
+        boolean seeded;
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                version = SchemaMigrator.applyPending(conn);
+                mark = lap(phases, "schema", mark);
+                seeded = DatabaseManager.seedDatabaseWithSampleData(conn);
+                mark = lap(phases, "seed", mark);
+                conn.commit();
+                lap(phases, "commit", mark);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+
+        Report report = new Report(version, seeded, phases);
+        System.out.println(report);
+        return report;
+    }
+
+    /**
+     * Ejecuta el arranque en segundo plano.
+     */
+    public static CompletableFuture<Report> runAsync() {
+        return BackgroundTasks.shared().supply(DatabaseBootstrap::run);
+    }
+
+    private static long lap(Map<String, Long> phases, String phase, long since) {
+        long now = System.nanoTime();
+        phases.put(phase, now - since);
+        return now;
+    }
+}
@@ -0,0 +1,238 @@
+package com.mycompany.almacen.database;
+
+import com.mycompany.almacen.metrics.MetricsRegistry;
+import com.mycompany.almacen.metrics.OperationStats;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cola de escrituras con un único hilo escritor y commit agrupado.
+ *
+ * Las tareas encoladas se juntan hasta {@value #MAX_BATCH_SIZE} y se aplican en
+ * una sola transacción de la conexión de escritura: un fsync por grupo en lugar
+ * de uno por venta, y sin competir por el lock de escritura de SQLite. Si hay
+ * varias esperando, el grupo sigue abierto hasta {@value #MAX_BATCH_DELAY_MICROS} µs
+ * después de la primera; una tarea sola se aplica sin espera. Cada tarea
+ * corre dentro de un SAVEPOINT, así que si falla solo se deshace la suya.
+ * Los futures se completan después del commit.
+ *
+ * Las tareas reciben la conexión de la transacción y no deben hacer commit,
+ * rollback ni cambiar el autocommit. Cualquier Throwable de una tarea o del
+ * commit falla los futures afectados sin detener el hilo; si el hilo termina
+ * igual, la cola queda cerrada.
+ */
+public class GroupCommitWriter {
+
+    /**
+     * Escritura a aplicar dentro de la transacción del grupo.
+     */
+    @FunctionalInterface
+    public interface WriteTask<T> {
+        T apply(Connection conn) throws Exception;
+    }
+
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final int MAX_BATCH_SIZE = 64;
+    private static final long MAX_BATCH_DELAY_MICROS = 2_000;
+    private static final long ENQUEUE_TIMEOUT_MILLIS = 30_000;
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private static final OperationStats QUEUE_WAIT = MetricsRegistry.shared().operation("writeQueue.wait");
+    private static final OperationStats GROUP_COMMIT = MetricsRegistry.shared().operation("writeQueue.commit");
+
+    private static final class Pending<T> {
+        final WriteTask<T> task;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final long enqueuedNanos = System.nanoTime();
+        T result;
+        Throwable failure;
+
+        Pending(WriteTask<T> task) {
+            this.task = task;
+        }
+
+        void run(Connection conn) throws SQLException {
+            Savepoint savepoint = conn.setSavepoint();
+            try {
+                result = task.apply(conn);
+                conn.releaseSavepoint(savepoint);
+            } catch (Throwable e) {
+                failure = e;
+                conn.rollback(savepoint);
+                conn.releaseSavepoint(savepoint);
+            }
+        }
+
+        void complete() {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+
+    private final BlockingQueue<Pending<?>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread thread;
+    private volatile boolean closed;
+
+    public GroupCommitWriter() {
+        thread = new Thread(this::runLoop, "group-commit-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Encola una escritura. Si la cola está llena espera hasta que haya lugar;
+     * el future falla con {@link RejectedExecutionException} si la cola sigue
+     * llena o el escritor está cerrado.
+     */
+    public <T> CompletableFuture<T> submit(WriteTask<T> task) {
+        Pending<T> pending = new Pending<>(task);
+        if (closed) {
+            pending.future.completeExceptionally(new RejectedExecutionException("La cola de escritura está cerrada"));
+            return pending.future;
+        }
+        try {
+            if (!queue.offer(pending, ENQUEUE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                pending.future.completeExceptionally(new RejectedExecutionException("La cola de escritura está llena"));
+            } else if (closed && queue.remove(pending)) {
+                // El hilo terminó mientras se encolaba
+                pending.future.completeExceptionally(new RejectedExecutionException("La cola de escritura está cerrada"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.future.completeExceptionally(e);
+        }
+        return pending.future;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Deja de aceptar escrituras, aplica las ya encoladas y detiene el hilo.
+     */
+    public void close() {
+        closed = true;
+        try {
+            thread.join(ENQUEUE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runLoop() {
+        List<Pending<?>> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        try {
+            while (!closed || !queue.isEmpty()) {
+                try {
+                    collectBatch(batch);
+                    if (!batch.isEmpty()) {
+                        commit(batch);
+                    }
+                } catch (InterruptedException e) {
+                    fail(batch, new RejectedExecutionException("La cola de escritura está cerrada"));
+                    break;
+                } catch (Throwable t) {
+                    System.err.println("Error en la cola de escritura: " + t);
+                    fail(batch, t);
+                } finally {
+                    batch.clear();
+                }
+            }
+        } finally {
+            // Sin hilo escritor no se aceptan más escrituras; fallan las encoladas en carrera
+            closed = true;
+            queue.drainTo(batch);
+            fail(batch, new RejectedExecutionException("La cola de escritura está cerrada"));
+        }
+    }
+
+    private static void fail(List<Pending<?>> batch, Throwable cause) {
+        for (Pending<?> pending : batch) {
+            pending.future.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * Espera la primera tarea y junta las que lleguen dentro de la ventana del grupo.
+     * Sin tareas vuelve cada {@value #IDLE_POLL_MILLIS} ms para ver si se cerró.
+     */
+    private void collectBatch(List<Pending<?>> batch) throws InterruptedException {
+        Pending<?> first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+        if (batch.size() == 1) {
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(MAX_BATCH_DELAY_MICROS);
+        while (batch.size() < MAX_BATCH_SIZE) {
+            queue.drainTo(batch, MAX_BATCH_SIZE - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= MAX_BATCH_SIZE || remaining <= 0) {
+                break;
+            }
+            Pending<?> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void commit(List<Pending<?>> batch) {
+        long start = System.nanoTime();
+        for (Pending<?> pending : batch) {
+            QUEUE_WAIT.recordNanos(start - pending.enqueuedNanos);
+        }
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (Pending<?> pending : batch) {
+                    pending.run(conn);
+                }
+                conn.commit();
+            } catch (Throwable t) {
+                rollback(conn, t);
+                throw t;
+            }
+            conn.setAutoCommit(true);
+        } catch (Throwable t) {
+            System.err.println("Error en el commit agrupado de " + batch.size() + " escrituras: " + t);
+            fail(batch, t);
+            return;
+        }
+        GROUP_COMMIT.record(start, batch.size());
+        for (Pending<?> pending : batch) {
+            pending.complete();
+        }
+    }
+
+    /**
+     * Deshace el grupo y recién entonces restaura el autocommit, que si no
+     * confirmaría lo ya aplicado. Si el rollback falla la conexión queda sin
+     * autocommit y el pool la deshace al devolverla.
+     */
+    private static void rollback(Connection conn, Throwable cause) {
+        try {
+            conn.rollback();
+            conn.setAutoCommit(true);
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+}
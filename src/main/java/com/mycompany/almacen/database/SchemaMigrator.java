@@ -0,0 +1,292 @@
+package com.mycompany.almacen.database;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Migraciones versionadas del esquema.
+ *
+ * La versión aplicada se guarda en PRAGMA user_version, así que el arranque
+ * solo lee un entero y ejecuta los pasos pendientes en orden. Cada paso corre
+ * dentro de la misma transacción que actualiza la versión: si falla, la base
+ * queda en la versión anterior. Para cambiar el esquema se agrega un paso al
+ * final de la lista; los pasos existentes no se modifican.
+ */
+public final class SchemaMigrator {
+
+    @FunctionalInterface
+    interface Step {
+        void apply(Connection conn, Statement stmt) throws SQLException;
+    }
+
+    static final class Migration {
+        final int version;
+        final String description;
+        final Step step;
+
+        Migration(int version, String description, Step step) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+        }
+    }
+
+    private static final List<Migration> MIGRATIONS = List.of(
+        new Migration(1, "Esquema base", SchemaMigrator::baseline),
+        new Migration(2, "Índices secundarios", SchemaMigrator::secondaryIndexes),
+        new Migration(3, "Índice de texto completo de productos", SchemaMigrator::productSearchIndex),
+        new Migration(4, "Montos en centavos y fechas en epoch millis", SchemaMigrator::integerMoneyAndDates),
+        new Migration(5, "Versión de fila en productos", SchemaMigrator::productVersion)
+    );
+
+    private SchemaMigrator() {
+    }
+
+    public static int latestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+    }
+
+    /**
+     * Lleva el esquema a la última versión y devuelve la versión resultante.
+     * La conexión debe ser la de escritura.
+     */
+    public static int migrate(Connection conn) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            int version = applyPending(conn);
+            conn.commit();
+            return version;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Aplica los pasos pendientes dentro de la transacción que ya tiene abierta
+     * el llamador, sin confirmarla.
+     */
+    static int applyPending(Connection conn) throws SQLException {
+        int current = readVersion(conn);
+        if (current >= latestVersion()) {
+            return current;
+        }
+        try (Statement stmt = conn.createStatement()) {
+            for (Migration migration : MIGRATIONS) {
+                if (migration.version <= current) {
+                    continue;
+                }
+                migration.step.apply(conn, stmt);
+                stmt.execute("PRAGMA user_version = " + migration.version);
+                System.out.println("Migration " + migration.version + " applied: " + migration.description);
+                current = migration.version;
+            }
+        }
+        return current;
+    }
+
+    static int readVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Versión 1: tablas y datos de referencia. También adapta bases creadas
+     * antes de que existieran las migraciones, que pueden carecer de columnas.
+     */
+    private static void baseline(Connection conn, Statement stmt) throws SQLException {
+        boolean brandsExisted = tableExists(stmt, "brands");
+
+        stmt.execute("CREATE TABLE IF NOT EXISTS categories (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                "name TEXT NOT NULL UNIQUE," +
+                "description TEXT)");
+        stmt.execute("CREATE TABLE IF NOT EXISTS brands (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                "name TEXT NOT NULL UNIQUE)");
+        stmt.execute("CREATE TABLE IF NOT EXISTS products (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                "name TEXT NOT NULL UNIQUE," +
+                "description TEXT," +
+                "price REAL NOT NULL," +
+                "stock INTEGER NOT NULL DEFAULT 0," +
+                "category_id INTEGER DEFAULT 1," +
+                "brand_id INTEGER DEFAULT 1," +
+                "model TEXT)");
+        stmt.execute("CREATE TABLE IF NOT EXISTS invoices (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                "invoice_date TEXT NOT NULL," +
+                "customer_name TEXT NOT NULL," +
+                "total_amount REAL NOT NULL," +
+                "invoice_type TEXT NOT NULL DEFAULT 'SALE'," +
+                "description TEXT)");
+        stmt.execute("CREATE TABLE IF NOT EXISTS invoice_items (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                "invoice_id INTEGER NOT NULL," +
+                "product_id INTEGER NOT NULL," +
+                "quantity INTEGER NOT NULL," +
+                "unit_price REAL NOT NULL)");
+
+        // Columnas agregadas en versiones anteriores a las migraciones
+        addColumnIfMissing(stmt, "products", "category_id", "INTEGER DEFAULT 1");
+        addColumnIfMissing(stmt, "products", "brand_id", "INTEGER DEFAULT 1");
+        addColumnIfMissing(stmt, "products", "model", "TEXT");
+        addColumnIfMissing(stmt, "invoices", "invoice_type", "TEXT NOT NULL DEFAULT 'SALE'");
+        addColumnIfMissing(stmt, "invoices", "description", "TEXT");
+        stmt.execute("UPDATE products SET category_id = 1 WHERE category_id IS NULL");
+
+        stmt.execute("INSERT OR IGNORE INTO categories (name, description) VALUES " +
+                "('Celulares', 'Dispositivos móviles'), " +
+                "('Parlantes', 'Altavoces y sistemas de audio'), " +
+                "('Accesorios', 'Accesorios para dispositivos'), " +
+                "('Tablets', 'Dispositivos tablet'), " +
+                "('Computadoras', 'Laptops y computadoras personales'), " +
+                "('General', 'Categoría por defecto')");
+        if (!brandsExisted) {
+            stmt.execute("INSERT OR IGNORE INTO brands (name) VALUES " +
+                    "('General'), ('Apple'), ('Samsung'), ('Honor'), ('Xiaomi'), ('Motorola')");
+        }
+    }
+
+    /**
+     * Versión 2: índices para los JOIN y filtros de fecha/tipo que usan los DAOs.
+     */
+    private static void secondaryIndexes(Connection conn, Statement stmt) throws SQLException {
+        // Ítems de una factura sin visitar la tabla (cubre las columnas leídas)
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_invoice_items_invoice " +
+                "ON invoice_items(invoice_id, product_id, quantity, unit_price)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_invoice_items_product ON invoice_items(product_id)");
+        // Agregados de ventas por rango de fechas (dashboard)
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_invoices_date_total ON invoices(invoice_date, total_amount)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_invoices_type_date ON invoices(invoice_type, invoice_date)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_products_category ON products(category_id)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_products_brand ON products(brand_id)");
+    }
+
+    /**
+     * Versión 3: índice FTS5 de productos sincronizado por triggers.
+     */
+    private static void productSearchIndex(Connection conn, Statement stmt) throws SQLException {
+        stmt.execute("CREATE VIRTUAL TABLE IF NOT EXISTS products_fts USING fts5(" +
+                "name, model, description, " +
+                "content='products', content_rowid='id', " +
+                "tokenize='unicode61 remove_diacritics 2')");
+        createProductSearchTriggers(stmt);
+        // Indexar los productos existentes
+        stmt.execute("INSERT INTO products_fts(products_fts) VALUES ('rebuild')");
+    }
+
+    /**
+     * Versión 4: precios y totales como INTEGER en centavos, invoice_date como
+     * INTEGER en epoch millis. SQLite no cambia el tipo de una columna, así que
+     * cada tabla se reconstruye con los mismos nombres de columna e IDs.
+     * Las fechas TEXT estaban en hora local; el modificador 'utc' las convierte.
+     */
+    private static void integerMoneyAndDates(Connection conn, Statement stmt) throws SQLException {
+        rebuildTable(stmt, "products",
+                "CREATE TABLE products_new (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                "name TEXT NOT NULL UNIQUE," +
+                "description TEXT," +
+                "price INTEGER NOT NULL," +
+                "stock INTEGER NOT NULL DEFAULT 0," +
+                "category_id INTEGER DEFAULT 1," +
+                "brand_id INTEGER DEFAULT 1," +
+                "model TEXT)",
+                "id, name, description, CAST(ROUND(price * 100) AS INTEGER), stock, category_id, brand_id, model");
+        rebuildTable(stmt, "invoices",
+                "CREATE TABLE invoices_new (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                "invoice_date INTEGER NOT NULL," +
+                "customer_name TEXT NOT NULL," +
+                "total_amount INTEGER NOT NULL," +
+                "invoice_type TEXT NOT NULL DEFAULT 'SALE'," +
+                "description TEXT)",
+                "id, COALESCE(CAST(strftime('%s', invoice_date, 'utc') AS INTEGER) * 1000, 0), " +
+                "customer_name, CAST(ROUND(total_amount * 100) AS INTEGER), invoice_type, description");
+        rebuildTable(stmt, "invoice_items",
+                "CREATE TABLE invoice_items_new (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                "invoice_id INTEGER NOT NULL," +
+                "product_id INTEGER NOT NULL," +
+                "quantity INTEGER NOT NULL," +
+                "unit_price INTEGER NOT NULL)",
+                "id, invoice_id, product_id, quantity, CAST(ROUND(unit_price * 100) AS INTEGER)");
+
+        // DROP TABLE se lleva índices y triggers; el índice FTS conserva los mismos rowid
+        secondaryIndexes(conn, stmt);
+        createProductSearchTriggers(stmt);
+    }
+
+    /**
+     * Versión 5: contador de versión por producto para el control optimista de
+     * stock y de ediciones entre varias cajas.
+     */
+    private static void productVersion(Connection conn, Statement stmt) throws SQLException {
+        addColumnIfMissing(stmt, "products", "version", "INTEGER NOT NULL DEFAULT 0");
+    }
+
+    /**
+     * Copia la tabla a {@code <tabla>_new} con la nueva definición y la reemplaza,
+     * conservando el contador de AUTOINCREMENT.
+     */
+    private static void rebuildTable(Statement stmt, String table, String createNew,
+                                     String selectColumns) throws SQLException {
+        String newTable = table + "_new";
+        stmt.execute(createNew);
+        stmt.execute("INSERT INTO " + newTable + " SELECT " + selectColumns + " FROM " + table);
+        long sequence;
+        try (ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(seq), 0) FROM sqlite_sequence " +
+                "WHERE name IN ('" + table + "', '" + newTable + "')")) {
+            sequence = rs.next() ? rs.getLong(1) : 0;
+        }
+        stmt.execute("DROP TABLE " + table);
+        stmt.execute("ALTER TABLE " + newTable + " RENAME TO " + table);
+        stmt.execute("DELETE FROM sqlite_sequence WHERE name = '" + table + "'");
+        if (sequence > 0) {
+            stmt.execute("INSERT INTO sqlite_sequence(name, seq) VALUES ('" + table + "', " + sequence + ")");
+        }
+    }
+
+    private static void createProductSearchTriggers(Statement stmt) throws SQLException {
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS products_fts_ai AFTER INSERT ON products BEGIN " +
+                "INSERT INTO products_fts(rowid, name, model, description) " +
+                "VALUES (new.id, new.name, new.model, new.description); END");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS products_fts_ad AFTER DELETE ON products BEGIN " +
+                "INSERT INTO products_fts(products_fts, rowid, name, model, description) " +
+                "VALUES ('delete', old.id, old.name, old.model, old.description); END");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS products_fts_au AFTER UPDATE OF name, model, description ON products BEGIN " +
+                "INSERT INTO products_fts(products_fts, rowid, name, model, description) " +
+                "VALUES ('delete', old.id, old.name, old.model, old.description); " +
+                "INSERT INTO products_fts(rowid, name, model, description) " +
+                "VALUES (new.id, new.name, new.model, new.description); END");
+    }
+
+    private static boolean tableExists(Statement stmt, String tableName) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(
+                "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = '" + tableName + "'")) {
+            return rs.next();
+        }
+    }
+
+    private static void addColumnIfMissing(Statement stmt, String tableName, String columnName,
+                                           String definition) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + tableName + ")")) {
+            while (rs.next()) {
+                if (columnName.equalsIgnoreCase(rs.getString("name"))) {
+                    return;
+                }
+            }
+        }
+        stmt.execute("ALTER TABLE " + tableName + " ADD COLUMN " + columnName + " " + definition);
+        System.out.println(columnName + " column added to " + tableName + " table.");
+    }
+}
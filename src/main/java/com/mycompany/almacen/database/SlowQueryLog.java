@@ -0,0 +1,77 @@
+package com.mycompany.almacen.database;
+
+import com.mycompany.almacen.util.DateCodec;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Log rotativo de consultas lentas.
+ *
+ * Escribe en un hilo propio para que la E/S no se sume a la consulta. Al pasar
+ * {@value #MAX_BYTES} bytes el archivo se rota a .1, .2, ... conservando
+ * {@value #MAX_ROLLED_FILES} archivos anteriores.
+ */
+class SlowQueryLog {
+
+    private static final long MAX_BYTES = 1024 * 1024;
+    private static final int MAX_ROLLED_FILES = 3;
+
+    private final File file;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "slow-query-log");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    SlowQueryLog(String path) {
+        this.file = new File(path);
+    }
+
+    String getPath() {
+        return file.getAbsolutePath();
+    }
+
+    void append(String sql, int binds, long nanos, long rows, String plan) {
+        String entry = String.format("%s %.1fms rows=%d binds=%d%n%s%n%s%n%n",
+            DateCodec.formatIsoDateTime(System.currentTimeMillis()), nanos / 1e6, rows, binds,
+            sql.trim(), plan);
+        writer.execute(() -> write(entry));
+    }
+
+    private void write(String entry) {
+        try {
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+                throw new IOException("No se pudo crear el directorio " + parent);
+            }
+            if (file.length() > MAX_BYTES) {
+                roll();
+            }
+            try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                out.write(entry);
+            }
+        } catch (IOException e) {
+            System.err.println("Error escribiendo el log de consultas lentas: " + e.getMessage());
+        }
+    }
+
+    private void roll() throws IOException {
+        for (int i = MAX_ROLLED_FILES - 1; i >= 1; i--) {
+            File older = new File(file.getPath() + "." + i);
+            if (older.exists()) {
+                Files.move(older.toPath(), new File(file.getPath() + "." + (i + 1)).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file.toPath(), new File(file.getPath() + ".1").toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+}
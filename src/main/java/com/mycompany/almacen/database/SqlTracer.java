@@ -0,0 +1,303 @@
+package com.mycompany.almacen.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Traza de las sentencias preparadas que pasan por el pool.
+ *
+ * Cada ejecución registra texto SQL, parámetros enlazados, duración y filas, y
+ * se acumula por sentencia para la vista de diagnóstico. Las que superan el
+ * umbral se escriben, con su EXPLAIN QUERY PLAN, en el log de consultas lentas.
+ * En una consulta la duración es la suma de executeQuery y de cada next(),
+ * porque SQLite hace el trabajo al avanzar el cursor; no incluye lo que el
+ * llamador hace con cada fila.
+ *
+ * Propiedades del sistema:
+ * {@code almacen.sql.trace} (true/false, desactivada por defecto),
+ * {@code almacen.sql.slowQueryMillis} (umbral, 50 ms por defecto) y
+ * {@code almacen.sql.slowQueryLog} (archivo del log).
+ */
+public final class SqlTracer {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("almacen.sql.trace", "false"));
+    private static final long SLOW_QUERY_NANOS = Long.getLong("almacen.sql.slowQueryMillis", 50) * 1_000_000;
+    private static final int MAX_TRACKED_STATEMENTS = 1000;
+    private static final String OTHER_STATEMENTS = "(otras sentencias)";
+
+    private static final ConcurrentMap<String, StatementStats> STATS = new ConcurrentHashMap<>();
+    private static final SlowQueryLog SLOW_LOG = new SlowQueryLog(
+        System.getProperty("almacen.sql.slowQueryLog", "logs/slow-queries.log"));
+
+    private SqlTracer() {
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public static long getSlowQueryMillis() {
+        return SLOW_QUERY_NANOS / 1_000_000;
+    }
+
+    public static String getSlowQueryLogPath() {
+        return SLOW_LOG.getPath();
+    }
+
+    /**
+     * Envuelve una sentencia recién preparada sobre {@code physical}. Si la traza
+     * está desactivada devuelve la misma sentencia.
+     */
+    static PreparedStatement trace(PreparedStatement statement, String sql, Connection physical) {
+        if (!ENABLED) {
+            return statement;
+        }
+        return (PreparedStatement) Proxy.newProxyInstance(
+            PreparedStatement.class.getClassLoader(),
+            new Class<?>[] { PreparedStatement.class },
+            new TracedStatement(statement, sql, physical)
+        );
+    }
+
+    /**
+     * Estadísticas acumuladas, de mayor a menor tiempo total.
+     */
+    public static List<StatementStats> getStatementStats() {
+        List<StatementStats> stats = new ArrayList<>(STATS.values());
+        stats.sort(Comparator.comparingLong(StatementStats::getTotalNanos).reversed());
+        return stats;
+    }
+
+    public static void reset() {
+        STATS.clear();
+    }
+
+    private static void record(String sql, int binds, long nanos, long rows, Connection physical) {
+        String key = sql;
+        if (!STATS.containsKey(key) && STATS.size() >= MAX_TRACKED_STATEMENTS) {
+            key = OTHER_STATEMENTS;
+        }
+        StatementStats stats = STATS.computeIfAbsent(key, StatementStats::new);
+        boolean slow = nanos >= SLOW_QUERY_NANOS;
+        stats.add(nanos, rows, slow);
+        if (slow) {
+            SLOW_LOG.append(sql, binds, nanos, rows, explain(sql, physical));
+        }
+    }
+
+    /**
+     * EXPLAIN QUERY PLAN en el formato del cliente sqlite3. Los parámetros quedan
+     * sin enlazar: el plan no depende de sus valores.
+     */
+    private static String explain(String sql, Connection physical) {
+        String verb = sql.trim().toUpperCase(Locale.ROOT);
+        if (!(verb.startsWith("SELECT") || verb.startsWith("WITH") || verb.startsWith("INSERT")
+                || verb.startsWith("UPDATE") || verb.startsWith("DELETE"))) {
+            return "";
+        }
+        StringBuilder plan = new StringBuilder("QUERY PLAN");
+        Map<Integer, Integer> depths = new HashMap<>();
+        try (PreparedStatement explain = physical.prepareStatement("EXPLAIN QUERY PLAN " + sql);
+             ResultSet rs = explain.executeQuery()) {
+            while (rs.next()) {
+                int depth = depths.getOrDefault(rs.getInt("parent"), 0) + 1;
+                depths.put(rs.getInt("id"), depth);
+                plan.append(System.lineSeparator());
+                for (int i = 1; i < depth; i++) {
+                    plan.append("   ");
+                }
+                plan.append("|--").append(rs.getString("detail"));
+            }
+        } catch (SQLException e) {
+            plan.append(System.lineSeparator()).append("(sin plan: ").append(e.getMessage()).append(')');
+        }
+        return plan.toString();
+    }
+
+    /**
+     * Acumulado de una sentencia: ejecuciones, tiempo, filas y cuántas fueron lentas.
+     */
+    public static final class StatementStats {
+        private final String sql;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder slowCount = new LongAdder();
+
+        StatementStats(String sql) {
+            this.sql = sql;
+        }
+
+        void add(long nanos, long rowCount, boolean slow) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            rows.add(rowCount);
+            if (slow) {
+                slowCount.increment();
+            }
+        }
+
+        public String getSql() { return sql; }
+        public long getCount() { return count.sum(); }
+        public long getTotalNanos() { return totalNanos.sum(); }
+        public long getMaxNanos() { return maxNanos.get(); }
+        public long getRows() { return rows.sum(); }
+        public long getSlowCount() { return slowCount.sum(); }
+
+        public double getMeanMillis() {
+            long n = count.sum();
+            return n == 0 ? 0.0 : totalNanos.sum() / 1e6 / n;
+        }
+    }
+
+    /**
+     * Proxy de la sentencia: cuenta parámetros y mide cada ejecución.
+     * Lo usa solo el hilo que tiene la conexión, como la sentencia misma.
+     */
+    private static class TracedStatement implements InvocationHandler, TracedResultSet.Listener {
+        private final PreparedStatement delegate;
+        private final String sql;
+        private final Connection physical;
+        private int binds;
+        private int batchRows;
+
+        // Consulta con el cursor abierto: se registra al agotarlo o cerrarlo
+        private boolean queryOpen;
+        private long queryNanos;
+        private long queryRows;
+        private int queryBinds;
+
+        TracedStatement(PreparedStatement delegate, String sql, Connection physical) {
+            this.delegate = delegate;
+            this.sql = sql;
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "TracedStatement[" + sql + "]";
+                case "executeQuery":
+                    if (args == null) {
+                        finishQuery();
+                        long start = System.nanoTime();
+                        ResultSet rs = (ResultSet) call(method, args);
+                        queryNanos = System.nanoTime() - start;
+                        queryOpen = true;
+                        queryRows = 0;
+                        queryBinds = binds;
+                        return new TracedResultSet(rs, delegate, this);
+                    }
+                    break;
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                case "execute":
+                    if (args == null) {
+                        finishQuery();
+                        long start = System.nanoTime();
+                        Object result = call(method, args);
+                        long rows = result instanceof Number ? ((Number) result).longValue() : 0;
+                        record(sql, binds, System.nanoTime() - start, rows, physical);
+                        return result;
+                    }
+                    break;
+                case "executeBatch":
+                case "executeLargeBatch": {
+                    finishQuery();
+                    long start = System.nanoTime();
+                    Object result = call(method, args);
+                    record(sql, binds * Math.max(1, batchRows), System.nanoTime() - start, sumUpdates(result), physical);
+                    batchRows = 0;
+                    return result;
+                }
+                case "addBatch":
+                    if (args == null) {
+                        batchRows++;
+                    }
+                    break;
+                case "clearParameters":
+                    binds = 0;
+                    break;
+                case "clearBatch":
+                    batchRows = 0;
+                    break;
+                case "close":
+                    finishQuery();
+                    break;
+                default:
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                        binds = Math.max(binds, (Integer) args[0]);
+                    }
+            }
+            return call(method, args);
+        }
+
+        private Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(delegate, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void finishQuery() {
+            if (queryOpen) {
+                queryOpen = false;
+                record(sql, queryBinds, queryNanos, queryRows, physical);
+            }
+        }
+
+        @Override
+        public void onNext(long nanos, boolean hasRow) {
+            queryNanos += nanos;
+            if (hasRow) {
+                queryRows++;
+            } else {
+                finishQuery();
+            }
+        }
+
+        @Override
+        public void onClose() {
+            finishQuery();
+        }
+
+        private static long sumUpdates(Object result) {
+            long total = 0;
+            if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    total += Math.max(0, count);
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    total += Math.max(0, count);
+                }
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.mycompany.almacen.database;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Perfil de PRAGMAs de rendimiento que se aplica a cada conexión del pool.
+ *
+ * Los valores por defecto vienen de {@code sqlite.properties} en el classpath y
+ * se pisan con el archivo del mismo nombre en el directorio de trabajo, o con el
+ * indicado en {@code -Dalmacen.sqlite.profile}. busy_timeout y synchronous tienen
+ * además un valor en el código, por si falta el recurso o la clave queda vacía:
+ * sin busy_timeout un lock de otra conexión falla en el acto. Las claves son nombres de PRAGMA;
+ * solo se aceptan las conocidas y con valores válidos, porque terminan
+ * concatenadas en SQL.
+ */
+public final class SqliteProfile {
+
+    static final String FILE_NAME = "sqlite.properties";
+
+    private static final List<String> SYNCHRONOUS = Arrays.asList("OFF", "NORMAL", "FULL", "EXTRA");
+    private static final List<String> TEMP_STORE = Arrays.asList("DEFAULT", "FILE", "MEMORY");
+
+    // Orden de aplicación: page_size antes de que el escritor active WAL
+    private static final List<String> KEYS = Arrays.asList(
+        "page_size", "synchronous", "cache_size", "mmap_size", "temp_store", "wal_autocheckpoint", "busy_timeout");
+    private static final List<String> WRITER_ONLY = Arrays.asList("page_size", "wal_autocheckpoint");
+    private static final String DEFAULT_BUSY_TIMEOUT = "5000";
+    private static final String DEFAULT_SYNCHRONOUS = "NORMAL";
+
+    private final Map<String, String> pragmas;
+    private final String source;
+
+    private SqliteProfile(Map<String, String> pragmas, String source) {
+        this.pragmas = Collections.unmodifiableMap(pragmas);
+        this.source = source;
+    }
+
+    /**
+     * Carga el perfil por defecto y le aplica el archivo local, si existe.
+     * Las claves o valores inválidos se ignoran con un aviso y los vacíos dejan
+     * el valor anterior.
+     */
+    public static SqliteProfile load() {
+        Map<String, String> pragmas = new LinkedHashMap<>();
+        pragmas.put("busy_timeout", DEFAULT_BUSY_TIMEOUT);
+        pragmas.put("synchronous", DEFAULT_SYNCHRONOUS);
+        String source = "valores por defecto";
+        try (InputStream in = SqliteProfile.class.getResourceAsStream("/" + FILE_NAME)) {
+            if (in != null) {
+                Properties defaults = new Properties();
+                defaults.load(in);
+                merge(defaults, pragmas);
+                source = "classpath:" + FILE_NAME;
+            } else {
+                System.err.println("Perfil SQLite: falta " + FILE_NAME + " en el classpath, se usan los valores por defecto");
+            }
+        } catch (IOException e) {
+            System.err.println("Error leyendo el perfil SQLite por defecto: " + e.getMessage());
+        }
+
+        File local = new File(System.getProperty("almacen.sqlite.profile", FILE_NAME));
+        if (local.isFile()) {
+            try (Reader reader = Files.newBufferedReader(local.toPath(), StandardCharsets.UTF_8)) {
+                Properties overrides = new Properties();
+                overrides.load(reader);
+                merge(overrides, pragmas);
+                source = local.getAbsolutePath();
+            } catch (IOException e) {
+                System.err.println("Error leyendo el perfil SQLite " + local + ": " + e.getMessage());
+            }
+        }
+
+        // Orden de aplicación fijo, sin importar el del archivo
+        Map<String, String> ordered = new LinkedHashMap<>();
+        for (String key : KEYS) {
+            if (pragmas.containsKey(key)) {
+                ordered.put(key, pragmas.get(key));
+            }
+        }
+        return new SqliteProfile(ordered, source);
+    }
+
+    /**
+     * Copia a {@code pragmas} las claves válidas; un valor inválido deja el anterior.
+     */
+    private static void merge(Properties properties, Map<String, String> pragmas) {
+        for (String key : properties.stringPropertyNames()) {
+            String value = properties.getProperty(key).trim();
+            if (!KEYS.contains(key)) {
+                System.err.println("Perfil SQLite: clave desconocida ignorada: " + key);
+            } else if (!value.isEmpty()) {
+                String normalized = normalize(key, value);
+                if (normalized == null) {
+                    System.err.println("Perfil SQLite: valor inválido para " + key + ": " + value);
+                } else {
+                    pragmas.put(key, normalized);
+                }
+            }
+        }
+    }
+
+    private static String normalize(String key, String value) {
+        switch (key) {
+            case "synchronous":
+                return enumValue(SYNCHRONOUS, value);
+            case "temp_store":
+                return enumValue(TEMP_STORE, value);
+            default:
+                try {
+                    return String.valueOf(Long.parseLong(value));
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+        }
+    }
+
+    private static String enumValue(List<String> names, String value) {
+        String upper = value.toUpperCase(Locale.ROOT);
+        if (names.contains(upper)) {
+            return upper;
+        }
+        try {
+            int index = Integer.parseInt(value);
+            return index >= 0 && index < names.size() ? names.get(index) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public Map<String, String> getPragmas() {
+        return pragmas;
+    }
+
+    /**
+     * Aplica el perfil a una conexión recién abierta. En las de lectura se
+     * omiten los PRAGMAs que solo afectan a la escritura.
+     */
+    void apply(Statement stmt, boolean writer) throws SQLException {
+        for (Map.Entry<String, String> pragma : pragmas.entrySet()) {
+            if (writer || !WRITER_ONLY.contains(pragma.getKey())) {
+                stmt.execute("PRAGMA " + pragma.getKey() + " = " + pragma.getValue());
+            }
+        }
+    }
+
+    /**
+     * Valores efectivos leídos de la conexión, que pueden diferir de los
+     * pedidos (p. ej. page_size en una base existente o mmap_size limitado por
+     * la compilación de SQLite).
+     */
+    public Map<String, String> readEffective(Connection conn) throws SQLException {
+        Map<String, String> effective = new LinkedHashMap<>();
+        try (Statement stmt = conn.createStatement()) {
+            effective.put("journal_mode", readPragma(stmt, "journal_mode"));
+            for (String key : KEYS) {
+                String value = readPragma(stmt, key);
+                if ("synchronous".equals(key)) {
+                    value = enumValue(SYNCHRONOUS, value);
+                } else if ("temp_store".equals(key)) {
+                    value = enumValue(TEMP_STORE, value);
+                }
+                effective.put(key, value);
+            }
+        }
+        return effective;
+    }
+
+    private static String readPragma(Statement stmt, String name) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA " + name)) {
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+
+    /**
+     * Reporte de arranque: origen del perfil y valores efectivos; marca con
+     * "(pedido X)" los que no coinciden con lo configurado.
+     */
+    String report(Connection conn) throws SQLException {
+        StringBuilder sb = new StringBuilder("SQLite profile (").append(source).append("):");
+        for (Map.Entry<String, String> entry : readEffective(conn).entrySet()) {
+            sb.append(' ').append(entry.getKey()).append('=').append(entry.getValue());
+            String requested = pragmas.get(entry.getKey());
+            if (requested != null && !requested.equalsIgnoreCase(String.valueOf(entry.getValue()))) {
+                sb.append(" (pedido ").append(requested).append(')');
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "SqliteProfile" + pragmas + " from " + source;
+    }
+}
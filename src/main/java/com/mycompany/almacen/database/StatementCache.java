@@ -0,0 +1,181 @@
+package com.mycompany.almacen.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Caché LRU de sentencias preparadas ligada a una conexión física de larga vida.
+ *
+ * Las sentencias se indexan por el texto SQL, de modo que los DAOs evitan el
+ * paso de parseo/planificación de SQLite en cada llamada. El close() de la
+ * sentencia prestada solo cierra sus ResultSet y limpia parámetros; la
+ * sentencia real se cierra al ser desalojada o al cerrar la conexión.
+ * No es thread-safe: la usa únicamente el hilo que tiene prestada la conexión.
+ */
+class StatementCache {
+
+    private final Connection connection;
+    private final int capacity;
+    private final LinkedHashMap<String, CachedStatement> entries;
+
+    // Solo los incrementa el hilo con el préstamo; volatile para leerlos desde las métricas.
+    private volatile long hits;
+    private volatile long misses;
+    private volatile long evictions;
+
+    StatementCache(Connection connection, int capacity) {
+        this.connection = connection;
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    PreparedStatement prepare(String sql) throws SQLException {
+        return prepare(sql, Statement.NO_GENERATED_KEYS);
+    }
+
+    PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "K:" + sql : sql;
+        CachedStatement entry = entries.get(key);
+        if (entry != null && entry.evicted) {
+            entries.remove(key);
+            entry = null;
+        }
+        if (entry != null && !entry.inUse) {
+            hits++;
+            entry.inUse = true;
+            return entry.proxy;
+        }
+
+        misses++;
+        PreparedStatement statement = connection.prepareStatement(sql, autoGeneratedKeys);
+        if (entry != null) {
+            // La misma sentencia ya está en uso más arriba en la pila (préstamo anidado):
+            // se entrega una sentencia independiente que se cierra de verdad.
+            return statement;
+        }
+
+        entry = new CachedStatement(statement);
+        entry.inUse = true;
+        entries.put(key, entry);
+        evictOverflow();
+        return entry.proxy;
+    }
+
+    private void evictOverflow() {
+        Iterator<CachedStatement> it = entries.values().iterator();
+        while (entries.size() > capacity && it.hasNext()) {
+            CachedStatement eldest = it.next();
+            it.remove();
+            evictions++;
+            eldest.evicted = true;
+            if (!eldest.inUse) {
+                eldest.closePhysical();
+            }
+        }
+    }
+
+    void close() {
+        for (CachedStatement entry : entries.values()) {
+            entry.closePhysical();
+        }
+        entries.clear();
+    }
+
+    long getHits() { return hits; }
+    long getMisses() { return misses; }
+    long getEvictions() { return evictions; }
+    int size() { return entries.size(); }
+
+    /**
+     * Entrada de la caché con su proxy reutilizable.
+     */
+    private static class CachedStatement implements InvocationHandler {
+        private final PreparedStatement delegate;
+        private final PreparedStatement proxy;
+        private final List<ResultSet> openResults = new ArrayList<>(1);
+        private boolean inUse;
+        private boolean evicted;
+
+        CachedStatement(PreparedStatement delegate) {
+            this.delegate = delegate;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class },
+                this
+            );
+        }
+
+        @Override
+        public Object invoke(Object p, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    release();
+                    return null;
+                case "isClosed":
+                    return !inUse || delegate.isClosed();
+                case "equals":
+                    return p == args[0];
+                case "hashCode":
+                    return System.identityHashCode(p);
+                case "toString":
+                    return "CachedStatement[" + delegate + "]";
+                default:
+                    if (!inUse) {
+                        throw new SQLException("La sentencia ya fue cerrada");
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(delegate, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (result instanceof ResultSet) {
+                        openResults.add((ResultSet) result);
+                    }
+                    return result;
+            }
+        }
+
+        private void release() throws SQLException {
+            if (!inUse) {
+                return;
+            }
+            inUse = false;
+            try {
+                for (ResultSet rs : openResults) {
+                    rs.close();
+                }
+                openResults.clear();
+                if (evicted) {
+                    closePhysical();
+                } else {
+                    delegate.clearParameters();
+                    delegate.clearBatch();
+                }
+            } catch (SQLException e) {
+                evicted = true;
+                closePhysical();
+                throw e;
+            }
+        }
+
+        private void closePhysical() {
+            try {
+                delegate.close();
+            } catch (SQLException e) {
+                System.err.println("Error cerrando sentencia en caché: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.mycompany.almacen.exception;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Conflicto de concurrencia sobre productos: otra caja vendió el stock o
+ * modificó el producto después de que se leyó. No se aplicó ningún cambio;
+ * la operación se puede reintentar tras recargar los productos.
+ */
+public class StockConflictException extends AlmacenException {
+    private final List<Integer> productIds;
+
+    public StockConflictException(String message, List<Integer> productIds) {
+        super(message);
+        this.productIds = Collections.unmodifiableList(productIds);
+    }
+
+    /**
+     * IDs de los productos en conflicto.
+     */
+    public List<Integer> getProductIds() {
+        return productIds;
+    }
+
+    public boolean isRetryable() {
+        return true;
+    }
+}
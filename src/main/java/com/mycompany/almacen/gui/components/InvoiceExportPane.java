@@ -0,0 +1,116 @@
+package com.mycompany.almacen.gui.components;
+
+import com.mycompany.almacen.service.InvoiceExportService;
+import com.mycompany.almacen.util.BackgroundTasks;
+import javafx.application.Platform;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Panel para exportar las facturas a CSV con barra de progreso y cancelación.
+ * La exportación corre en segundo plano; el panel solo muestra el avance.
+ */
+public class InvoiceExportPane extends VBox {
+
+    private final InvoiceExportService exportService;
+    private final Button exportButton = new Button("📤 Exportar CSV");
+    private final Button cancelButton = new Button("Cancelar");
+    private final ProgressBar progressBar = new ProgressBar(0);
+    private final Label statusLabel = new Label();
+
+    private AtomicBoolean cancelRequested;
+    private CompletableFuture<Long> running;
+
+    public InvoiceExportPane(InvoiceExportService exportService) {
+        this.exportService = exportService;
+        initialize();
+    }
+
+    private void initialize() {
+        setSpacing(10);
+
+        cancelButton.getStyleClass().addAll("button", "danger");
+        cancelButton.setDisable(true);
+        progressBar.setPrefWidth(320);
+        progressBar.setVisible(false);
+
+        exportButton.setOnAction(e -> chooseFileAndExport());
+        cancelButton.setOnAction(e -> cancelExport());
+
+        HBox actions = new HBox(10, exportButton, cancelButton);
+        actions.setAlignment(Pos.CENTER_LEFT);
+        getChildren().addAll(actions, progressBar, statusLabel);
+    }
+
+    private void chooseFileAndExport() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Exportar facturas");
+        chooser.setInitialFileName("facturas-" + LocalDate.now() + ".csv");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV", "*.csv"));
+        File dest = chooser.showSaveDialog(getScene().getWindow());
+        if (dest != null) {
+            startExport(dest);
+        }
+    }
+
+    private void startExport(File dest) {
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        cancelRequested = cancelled;
+        setRunning(true);
+        progressBar.setProgress(ProgressBar.INDETERMINATE_PROGRESS);
+        statusLabel.setText("Exportando...");
+
+        running = BackgroundTasks.shared().supply(() -> exportService.exportInvoicesCsv(
+            dest,
+            (rows, total) -> Platform.runLater(() -> showProgress(rows, total)),
+            cancelled::get
+        ));
+        running.whenComplete((rows, error) -> Platform.runLater(() -> {
+            setRunning(false);
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+                progressBar.setProgress(0);
+                statusLabel.setText("Error al exportar: " + cause.getMessage());
+            } else if (rows < 0) {
+                progressBar.setProgress(0);
+                statusLabel.setText("Exportación cancelada");
+            } else {
+                progressBar.setProgress(1);
+                statusLabel.setText(rows + " filas exportadas a " + dest.getName());
+            }
+        }));
+    }
+
+    private void showProgress(long rows, long total) {
+        if (running == null || running.isDone()) {
+            return;
+        }
+        progressBar.setProgress(total > 0 ? Math.min(1.0, (double) rows / total) : ProgressBar.INDETERMINATE_PROGRESS);
+        statusLabel.setText("Exportando... " + rows + " de " + total + " filas");
+    }
+
+    private void cancelExport() {
+        if (cancelRequested != null) {
+            cancelRequested.set(true);
+            statusLabel.setText("Cancelando...");
+        }
+    }
+
+    private void setRunning(boolean running) {
+        exportButton.setDisable(running);
+        cancelButton.setDisable(!running);
+        progressBar.setVisible(true);
+    }
+}
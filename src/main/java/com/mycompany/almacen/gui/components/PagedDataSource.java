@@ -0,0 +1,147 @@
+package com.mycompany.almacen.gui.components;
+
+import com.mycompany.almacen.dao.KeysetPage;
+import com.mycompany.almacen.util.BackgroundTasks;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TableRow;
+import javafx.scene.control.TableView;
+
+import java.util.function.Consumer;
+
+/**
+ * Fuente de datos paginada para TableView.
+ *
+ * Carga páginas por keyset en segundo plano y las agrega a la lista a medida
+ * que el usuario se acerca al final del scroll, en lugar de traer toda la tabla
+ * a memoria de una vez. Se usa solo desde el hilo de JavaFX.
+ *
+ * El cursor es el último elemento de la última página traída, no el último de
+ * la lista: la tabla puede reordenar la lista que muestra.
+ */
+public class PagedDataSource<T> {
+
+    /**
+     * Carga la página que sigue a {@code after} (null para la primera).
+     */
+    @FunctionalInterface
+    public interface PageLoader<T> {
+        KeysetPage<T> load(T after, int pageSize) throws Exception;
+    }
+
+    private static final int PREFETCH_ROWS = 20;
+
+    private final String requestKey;
+    private final PageLoader<T> loader;
+    private final int pageSize;
+    private final ObservableList<T> items = FXCollections.observableArrayList();
+
+    private Consumer<? super Throwable> onError = error ->
+        System.err.println("Error al cargar página: " + error.getMessage());
+    private T cursor;
+    private boolean loading;
+    private boolean exhausted;
+    private boolean failed;
+
+    /**
+     * @param requestKey clave para BackgroundTasks; una carga nueva reemplaza a la anterior
+     */
+    public PagedDataSource(String requestKey, PageLoader<T> loader, int pageSize) {
+        this.requestKey = requestKey;
+        this.loader = loader;
+        this.pageSize = pageSize;
+    }
+
+    public ObservableList<T> getItems() {
+        return items;
+    }
+
+    public void setOnError(Consumer<? super Throwable> onError) {
+        this.onError = onError;
+    }
+
+    public boolean isExhausted() {
+        return exhausted;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * Muestra la fuente en la tabla y pide la página siguiente cuando se dibujan
+     * filas cercanas al final. Reemplaza la fábrica de filas de la tabla.
+     */
+    public void attach(TableView<T> table) {
+        table.setItems(items);
+        table.setRowFactory(tv -> new TableRow<>() {
+            @Override
+            public void updateIndex(int index) {
+                super.updateIndex(index);
+                if (index >= 0 && index >= items.size() - PREFETCH_ROWS && tv.getItems() == items) {
+                    // No se modifica la lista durante el layout de la tabla
+                    Platform.runLater(PagedDataSource.this::loadNextPage);
+                }
+            }
+        });
+    }
+
+    /**
+     * Descarta lo cargado y vuelve a empezar desde la primera página.
+     */
+    public void reset() {
+        items.clear();
+        cursor = null;
+        exhausted = false;
+        failed = false;
+        loading = false;
+        loadNextPage();
+    }
+
+    /**
+     * Vuelve a pedir la página que falló, desde el mismo cursor.
+     */
+    public void retry() {
+        failed = false;
+        loadNextPage();
+    }
+
+    /**
+     * Pide la página siguiente si no hay otra en curso y quedan filas. Tras un
+     * fallo no se pide nada más, ni siquiera al hacer scroll, hasta
+     * {@link #retry()} o {@link #reset()}.
+     */
+    public void loadNextPage() {
+        if (loading || exhausted || failed) {
+            return;
+        }
+        loading = true;
+        T after = cursor;
+        BackgroundTasks.shared().submit(
+            requestKey,
+            () -> loader.load(after, pageSize),
+            page -> {
+                loading = false;
+                exhausted = !page.hasMore();
+                if (page.getLast() != null) {
+                    cursor = page.getLast();
+                }
+                items.addAll(page.getItems());
+            },
+            error -> {
+                loading = false;
+                failed = true;
+                onError.accept(error);
+            }
+        );
+    }
+
+    /**
+     * Cancela la carga en curso, por ejemplo al cerrar la vista.
+     */
+    public void cancel() {
+        BackgroundTasks.shared().cancel(requestKey);
+        loading = false;
+    }
+}
@@ -0,0 +1,79 @@
+package com.mycompany.almacen.gui.components;
+
+import com.mycompany.almacen.database.SqlTracer;
+import com.mycompany.almacen.database.SqlTracer.StatementStats;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.FXCollections;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+import java.util.function.Function;
+
+/**
+ * Vista de diagnóstico con el acumulado por sentencia SQL de {@link SqlTracer},
+ * ordenado por tiempo total.
+ */
+public class SqlDiagnosticsPane extends VBox {
+
+    private final TableView<StatementStats> table = new TableView<>();
+    private final Label summaryLabel = new Label();
+
+    public SqlDiagnosticsPane() {
+        initialize();
+        refresh();
+    }
+
+    private void initialize() {
+        setSpacing(10);
+        setPrefSize(900, 480);
+
+        TableColumn<StatementStats, String> sqlColumn = new TableColumn<>("Sentencia");
+        sqlColumn.setCellValueFactory(data -> new ReadOnlyStringWrapper(data.getValue().getSql().trim()));
+        sqlColumn.setPrefWidth(440);
+        table.getColumns().add(sqlColumn);
+        table.getColumns().add(numberColumn("Ejecuciones", StatementStats::getCount));
+        table.getColumns().add(numberColumn("Total (ms)", s -> s.getTotalNanos() / 1_000_000));
+        table.getColumns().add(numberColumn("Media (ms)", s -> Math.round(s.getMeanMillis() * 100) / 100.0));
+        table.getColumns().add(numberColumn("Máx (ms)", s -> s.getMaxNanos() / 1_000_000));
+        table.getColumns().add(numberColumn("Filas", StatementStats::getRows));
+        table.getColumns().add(numberColumn("Lentas", StatementStats::getSlowCount));
+        VBox.setVgrow(table, Priority.ALWAYS);
+
+        Button refreshButton = new Button("🔄 Actualizar");
+        refreshButton.setOnAction(e -> refresh());
+        Button resetButton = new Button("Reiniciar");
+        resetButton.getStyleClass().addAll("button", "danger");
+        resetButton.setOnAction(e -> {
+            SqlTracer.reset();
+            refresh();
+        });
+
+        HBox actions = new HBox(10, refreshButton, resetButton, summaryLabel);
+        actions.setAlignment(Pos.CENTER_LEFT);
+        getChildren().addAll(actions, table);
+    }
+
+    private static TableColumn<StatementStats, Number> numberColumn(String title, Function<StatementStats, Number> value) {
+        TableColumn<StatementStats, Number> column = new TableColumn<>(title);
+        column.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(value.apply(data.getValue())));
+        column.setPrefWidth(75);
+        return column;
+    }
+
+    public void refresh() {
+        if (!SqlTracer.isEnabled()) {
+            summaryLabel.setText("Traza SQL desactivada (activar con -Dalmacen.sql.trace=true)");
+            return;
+        }
+        table.setItems(FXCollections.observableArrayList(SqlTracer.getStatementStats()));
+        summaryLabel.setText("Umbral lento: " + SqlTracer.getSlowQueryMillis() + " ms — log: "
+                + SqlTracer.getSlowQueryLogPath());
+    }
+}
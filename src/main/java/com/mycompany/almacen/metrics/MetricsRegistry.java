@@ -0,0 +1,116 @@
+package com.mycompany.almacen.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registro de las operaciones medidas de la aplicación.
+ *
+ * Cada operación se publica como MBean bajo {@value #JMX_DOMAIN} (visible en
+ * JConsole/VisualVM) y, si se activa, todas se escriben al log periódicamente.
+ * El intervalo se configura con {@code -Dalmacen.metrics.logIntervalSeconds}
+ * (0 lo desactiva).
+ */
+public final class MetricsRegistry {
+
+    public static final String JMX_DOMAIN = "com.mycompany.almacen";
+    private static final String LOG_INTERVAL_PROPERTY = "almacen.metrics.logIntervalSeconds";
+    private static final long DEFAULT_LOG_INTERVAL_SECONDS = 300;
+
+    private static final MetricsRegistry SHARED = new MetricsRegistry();
+
+    private final ConcurrentMap<String, OperationStats> operations = new ConcurrentHashMap<>();
+    private ScheduledExecutorService reporter;
+
+    private MetricsRegistry() {
+    }
+
+    public static MetricsRegistry shared() {
+        return SHARED;
+    }
+
+    /**
+     * Devuelve (creándola la primera vez) la operación con ese nombre.
+     */
+    public OperationStats operation(String name) {
+        return operations.computeIfAbsent(name, key -> {
+            OperationStats stats = new OperationStats(key);
+            registerMBean(stats);
+            return stats;
+        });
+    }
+
+    /**
+     * Operaciones con al menos una ejecución, ordenadas por nombre.
+     */
+    public List<OperationStats> activeOperations() {
+        List<OperationStats> active = new ArrayList<>();
+        for (OperationStats stats : operations.values()) {
+            if (stats.getCount() > 0) {
+                active.add(stats);
+            }
+        }
+        active.sort(Comparator.comparing(OperationStats::getName));
+        return active;
+    }
+
+    /**
+     * Texto con una línea por operación activa.
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder("Metrics:");
+        for (OperationStats stats : activeOperations()) {
+            sb.append(System.lineSeparator()).append("  ").append(stats);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Empieza a escribir el reporte al log con el intervalo configurado.
+     */
+    public synchronized void startPeriodicLog() {
+        long interval = Long.getLong(LOG_INTERVAL_PROPERTY, DEFAULT_LOG_INTERVAL_SECONDS);
+        if (interval <= 0 || reporter != null) {
+            return;
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> System.out.println(report()), interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Detiene el log periódico y escribe un último reporte.
+     */
+    public synchronized void stopPeriodicLog() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+            System.out.println(report());
+        }
+    }
+
+    private static void registerMBean(OperationStats stats) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=Operation,name=" + ObjectName.quote(stats.getName()));
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(stats, objectName);
+            }
+        } catch (JMException | SecurityException e) {
+            System.err.println("No se pudo publicar la métrica " + stats.getName() + " por JMX: " + e.getMessage());
+        }
+    }
+}
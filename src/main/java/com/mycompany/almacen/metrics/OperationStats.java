@@ -0,0 +1,107 @@
+package com.mycompany.almacen.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencia y filas de una operación (un método de DAO, una operación de servicio,
+ * la espera por una conexión). Se obtiene de {@link MetricsRegistry} y se guarda
+ * en un campo estático para no buscarla en cada llamada.
+ *
+ * Cantidad, media y máximo se leen de contadores; solo los percentiles copian
+ * el histograma.
+ */
+public final class OperationStats implements OperationStatsMXBean {
+
+    private final String name;
+    private final LatencyRecorder latency = new LatencyRecorder();
+    private final LongAdder count = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+
+    OperationStats(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Registra una ejecución que empezó en {@code startNanos} (de System.nanoTime()).
+     */
+    public void record(long startNanos) {
+        recordNanos(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Registra una ejecución y las filas que devolvió o escribió.
+     */
+    public void record(long startNanos, long rowCount) {
+        recordNanos(System.nanoTime() - startNanos);
+        rows.add(rowCount);
+    }
+
+    public void recordNanos(long nanos) {
+        latency.record(nanos);
+        count.increment();
+    }
+
+    public LatencyRecorder.Snapshot snapshot() {
+        return latency.snapshot();
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public long getRows() {
+        return rows.sum();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : latency.getTotalNanos() / 1e6 / n;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return latency.snapshot().getValueAtPercentile(50) / 1e6;
+    }
+
+    @Override
+    public double getP90Millis() {
+        return latency.snapshot().getValueAtPercentile(90) / 1e6;
+    }
+
+    @Override
+    public double getP99Millis() {
+        return latency.snapshot().getValueAtPercentile(99) / 1e6;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return latency.getMaxNanos() / 1e6;
+    }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        count.reset();
+        rows.reset();
+    }
+
+    @Override
+    public String toString() {
+        LatencyRecorder.Snapshot snapshot = latency.snapshot();
+        String text = String.format("%s n=%d p50=%.3fms p90=%.3fms p99=%.3fms max=%.3fms",
+            name, snapshot.getCount(),
+            snapshot.getValueAtPercentile(50) / 1e6,
+            snapshot.getValueAtPercentile(90) / 1e6,
+            snapshot.getValueAtPercentile(99) / 1e6,
+            snapshot.getMaxNanos() / 1e6);
+        long rowCount = rows.sum();
+        return rowCount > 0 ? text + " rows=" + rowCount : text;
+    }
+}
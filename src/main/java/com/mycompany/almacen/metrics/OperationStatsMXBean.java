@@ -0,0 +1,23 @@
+package com.mycompany.almacen.metrics;
+
+/**
+ * Vista JMX de una operación medida. Los tiempos se exponen en milisegundos.
+ */
+public interface OperationStatsMXBean {
+
+    long getCount();
+
+    long getRows();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP90Millis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+
+    void reset();
+}
@@ -0,0 +1,43 @@
+package com.mycompany.almacen.model;
+
+import com.mycompany.almacen.util.Money;
+
+/**
+ * Métricas agregadas que muestra el Dashboard. Los montos se guardan en centavos.
+ */
+public class DashboardKpis {
+    private final long inventoryValueCents;
+    private final int lowStockCount;
+    private final int totalProducts;
+    private final long dailySalesCents;
+    private final int dailySalesCount;
+
+    public DashboardKpis(long inventoryValueCents, int lowStockCount, int totalProducts,
+                         long dailySalesCents, int dailySalesCount) {
+        this.inventoryValueCents = inventoryValueCents;
+        this.lowStockCount = lowStockCount;
+        this.totalProducts = totalProducts;
+        this.dailySalesCents = dailySalesCents;
+        this.dailySalesCount = dailySalesCount;
+    }
+
+    // Getters
+    public double getInventoryValue() { return Money.toAmount(inventoryValueCents); }
+    public long getInventoryValueCents() { return inventoryValueCents; }
+    public int getLowStockCount() { return lowStockCount; }
+    public int getTotalProducts() { return totalProducts; }
+    public double getDailySales() { return Money.toAmount(dailySalesCents); }
+    public long getDailySalesCents() { return dailySalesCents; }
+    public int getDailySalesCount() { return dailySalesCount; }
+
+    @Override
+    public String toString() {
+        return "DashboardKpis{" +
+               "inventoryValue=" + getInventoryValue() +
+               ", lowStockCount=" + lowStockCount +
+               ", totalProducts=" + totalProducts +
+               ", dailySales=" + getDailySales() +
+               ", dailySalesCount=" + dailySalesCount +
+               '}';
+    }
+}
@@ -1,15 +1,20 @@
 package com.mycompany.almacen.model;
 
+import com.mycompany.almacen.util.Money;
+
 import java.util.Date;
 import java.util.List;
 
 public class Invoice {
     public enum InvoiceType { SALE, SERVICE }
 
+    private static final long NO_DATE = Long.MIN_VALUE;
+
     private int id;
-    private Date invoiceDate;
+    private long invoiceDateMillis = NO_DATE; // Persisted as INTEGER epoch millis
+    private Date invoiceDate; // Created on demand from invoiceDateMillis
     private String customerName;
-    private double totalAmount;
+    private long totalAmountCents; // Persisted as INTEGER cents
     private InvoiceType invoiceType;
     private String description;
     private List<InvoiceItem> items; // Not persisted directly in DB for Invoice table
@@ -17,9 +22,9 @@ public class Invoice {
     // Full constructor
     public Invoice(int id, Date invoiceDate, String customerName, double totalAmount, InvoiceType invoiceType, String description) {
         this.id = id;
-        this.invoiceDate = invoiceDate;
+        setInvoiceDate(invoiceDate);
         this.customerName = customerName;
-        this.totalAmount = totalAmount;
+        this.totalAmountCents = Money.toCents(totalAmount);
         this.invoiceType = invoiceType;
         this.description = description;
     }
@@ -41,12 +46,28 @@ public class Invoice {
     // Getters and Setters
     public int getId() { return id; }
     public void setId(int id) { this.id = id; }
-    public Date getInvoiceDate() { return invoiceDate; }
-    public void setInvoiceDate(Date invoiceDate) { this.invoiceDate = invoiceDate; }
+    public Date getInvoiceDate() {
+        if (invoiceDate == null && invoiceDateMillis != NO_DATE) {
+            invoiceDate = new Date(invoiceDateMillis);
+        }
+        return invoiceDate;
+    }
+    public void setInvoiceDate(Date invoiceDate) {
+        this.invoiceDate = invoiceDate;
+        this.invoiceDateMillis = invoiceDate != null ? invoiceDate.getTime() : NO_DATE;
+    }
+    public boolean hasInvoiceDate() { return invoiceDateMillis != NO_DATE; }
+    public long getInvoiceDateMillis() { return invoiceDateMillis; }
+    public void setInvoiceDateMillis(long invoiceDateMillis) {
+        this.invoiceDateMillis = invoiceDateMillis;
+        this.invoiceDate = null;
+    }
     public String getCustomerName() { return customerName; }
     public void setCustomerName(String customerName) { this.customerName = customerName; }
-    public double getTotalAmount() { return totalAmount; }
-    public void setTotalAmount(double totalAmount) { this.totalAmount = totalAmount; }
+    public double getTotalAmount() { return Money.toAmount(totalAmountCents); }
+    public void setTotalAmount(double totalAmount) { this.totalAmountCents = Money.toCents(totalAmount); }
+    public long getTotalAmountCents() { return totalAmountCents; }
+    public void setTotalAmountCents(long totalAmountCents) { this.totalAmountCents = totalAmountCents; }
     public List<InvoiceItem> getItems() { return items; }
     public void setItems(List<InvoiceItem> items) { this.items = items; }
     public InvoiceType getInvoiceType() { return invoiceType; }
@@ -63,9 +84,9 @@ public class Invoice {
     public String toString() {
         return "Invoice{" +
                "id=" + id +
-               ", invoiceDate=" + invoiceDate +
+               ", invoiceDate=" + getInvoiceDate() +
                ", customerName='" + customerName + "'" +
-               ", totalAmount=" + totalAmount +
+               ", totalAmount=" + getTotalAmount() +
                ", type=" + invoiceType +
                ", description='" + description + "'" +
                ", items=" + items +
@@ -1,12 +1,14 @@
 package com.mycompany.almacen.model;
 
+import com.mycompany.almacen.util.Money;
+
 public class InvoiceItem {
     private int id;
     private int invoiceId;
     private int productId;
     private String productName; // To store product name for easier display
     private int quantity;
-    private double unitPrice;
+    private long unitPriceCents; // Persisted as INTEGER cents
 
     public InvoiceItem(int id, int invoiceId, int productId, String productName, int quantity, double unitPrice) {
         this.id = id;
@@ -14,7 +16,7 @@ public class InvoiceItem {
         this.productId = productId;
         this.productName = productName;
         this.quantity = quantity;
-        this.unitPrice = unitPrice;
+        this.unitPriceCents = Money.toCents(unitPrice);
     }
 
     // Constructor without ID for new invoice items
@@ -68,11 +70,19 @@ public class InvoiceItem {
     }
 
     public double getUnitPrice() {
-        return unitPrice;
+        return Money.toAmount(unitPriceCents);
     }
 
     public void setUnitPrice(double unitPrice) {
-        this.unitPrice = unitPrice;
+        this.unitPriceCents = Money.toCents(unitPrice);
+    }
+
+    public long getUnitPriceCents() {
+        return unitPriceCents;
+    }
+
+    public void setUnitPriceCents(long unitPriceCents) {
+        this.unitPriceCents = unitPriceCents;
     }
 
     @Override
@@ -83,7 +93,7 @@ public class InvoiceItem {
                ", productId=" + productId +
                ", productName='" + productName + "'" +
                ", quantity=" + quantity +
-               ", unitPrice=" + unitPrice +
+               ", unitPrice=" + getUnitPrice() +
                '}';
     }
 }
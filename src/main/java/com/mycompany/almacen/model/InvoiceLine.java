@@ -0,0 +1,42 @@
+package com.mycompany.almacen.model;
+
+/**
+ * Fila plana factura + ítem usada al recorrer facturas en streaming.
+ * El DAO reutiliza la misma instancia para cada fila, así que no debe
+ * guardarse fuera del callback. Las facturas sin ítems (servicios) traen
+ * productId = 0.
+ */
+public class InvoiceLine {
+    private int invoiceId;
+    private long invoiceDateMillis;
+    private String customerName;
+    private String invoiceType;
+    private long totalAmountCents;
+    private String description;
+    private int productId;
+    private String productName;
+    private int quantity;
+    private long unitPriceCents;
+
+    // Getters and Setters
+    public int getInvoiceId() { return invoiceId; }
+    public void setInvoiceId(int invoiceId) { this.invoiceId = invoiceId; }
+    public long getInvoiceDateMillis() { return invoiceDateMillis; }
+    public void setInvoiceDateMillis(long invoiceDateMillis) { this.invoiceDateMillis = invoiceDateMillis; }
+    public String getCustomerName() { return customerName; }
+    public void setCustomerName(String customerName) { this.customerName = customerName; }
+    public String getInvoiceType() { return invoiceType; }
+    public void setInvoiceType(String invoiceType) { this.invoiceType = invoiceType; }
+    public long getTotalAmountCents() { return totalAmountCents; }
+    public void setTotalAmountCents(long totalAmountCents) { this.totalAmountCents = totalAmountCents; }
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    public int getProductId() { return productId; }
+    public void setProductId(int productId) { this.productId = productId; }
+    public String getProductName() { return productName; }
+    public void setProductName(String productName) { this.productName = productName; }
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+    public long getUnitPriceCents() { return unitPriceCents; }
+    public void setUnitPriceCents(long unitPriceCents) { this.unitPriceCents = unitPriceCents; }
+}
@@ -1,20 +1,25 @@
 package com.mycompany.almacen.model;
 
+import com.mycompany.almacen.util.Money;
+
 public class Product {
     private int id;
     private String name;
     private String description;
-    private double price;
+    private long priceCents; // Persisted as INTEGER cents
     private int stock;
     private int categoryId;
     private int brandId;
     private String model;
+    private int version; // Incremented on every write; used for optimistic checks
+    private String categoryName; // Denormalized for display, not persisted in products
+    private String brandName; // Denormalized for display, not persisted in products
 
     public Product(int id, String name, String description, double price, int stock, int categoryId, int brandId, String model) {
         this.id = id;
         this.name = name;
         this.description = description;
-        this.price = price;
+        this.priceCents = Money.toCents(price);
         this.stock = stock;
         this.categoryId = categoryId;
         this.brandId = brandId;
@@ -26,7 +31,7 @@ public class Product {
         this.id = id;
         this.name = name;
         this.description = description;
-        this.price = price;
+        this.priceCents = Money.toCents(price);
         this.stock = stock;
         this.categoryId = categoryId;
         this.brandId = brandId;
@@ -38,7 +43,7 @@ public class Product {
         this.id = id;
         this.name = name;
         this.description = description;
-        this.price = price;
+        this.priceCents = Money.toCents(price);
         this.stock = stock;
         this.categoryId = categoryId;
         this.brandId = 1; // Default to General brand
@@ -50,7 +55,7 @@ public class Product {
         this.id = id;
         this.name = name;
         this.description = description;
-        this.price = price;
+        this.priceCents = Money.toCents(price);
         this.stock = stock;
         this.categoryId = 1; // Default to General category
         this.brandId = 1; // Default to General brand
@@ -83,11 +88,19 @@ public class Product {
     }
 
     public double getPrice() {
-        return price;
+        return Money.toAmount(priceCents);
     }
 
     public void setPrice(double price) {
-        this.price = price;
+        this.priceCents = Money.toCents(price);
+    }
+
+    public long getPriceCents() {
+        return priceCents;
+    }
+
+    public void setPriceCents(long priceCents) {
+        this.priceCents = priceCents;
     }
 
     public int getStock() {
@@ -122,13 +135,37 @@ public class Product {
         this.model = model;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public void setCategoryName(String categoryName) {
+        this.categoryName = categoryName;
+    }
+
+    public String getBrandName() {
+        return brandName;
+    }
+
+    public void setBrandName(String brandName) {
+        this.brandName = brandName;
+    }
+
     @Override
     public String toString() {
         return "Product{" +
                "id=" + id + ", " +
                "name='" + name + "', " +
                "description='" + description + "', " +
-               "price=" + price + ", " +
+               "price=" + getPrice() + ", " +
                "stock=" + stock + ", " +
                "categoryId=" + categoryId + ", " +
                "brandId=" + brandId + ", " +
@@ -5,6 +5,7 @@ import com.mycompany.almacen.exception.AlmacenException;
 import com.mycompany.almacen.model.Brand;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -12,6 +13,12 @@ import java.util.List;
  * Encapsula la lógica de negocio relacionada con marcas.
  */
 public class BrandService {
+    /**
+     * Caché compartida por todas las instancias: la tabla es la misma para toda la aplicación.
+     */
+    private static final ReferenceDataCache<Brand> BRAND_CACHE =
+        new ReferenceDataCache<>(Brand::getId, Brand::getName);
+
     private BrandDAO brandDAO;
 
     public BrandService() {
@@ -31,12 +38,14 @@ public class BrandService {
             brandDAO.addBrand(brand);
         } catch (SQLException e) {
             throw new AlmacenException("Error al agregar marca: " + e.getMessage(), e);
+        } finally {
+            BRAND_CACHE.invalidate();
         }
     }
 
     public Brand getBrandById(int id) throws AlmacenException {
         try {
-            return brandDAO.getBrandById(id);
+            return BRAND_CACHE.get(brandDAO::getAllBrands).byId(id);
         } catch (SQLException e) {
             throw new AlmacenException("Error al obtener marca por ID: " + e.getMessage(), e);
         }
@@ -44,7 +53,7 @@ public class BrandService {
 
     public List<Brand> getAllBrands() throws AlmacenException {
         try {
-            return brandDAO.getAllBrands();
+            return new ArrayList<>(BRAND_CACHE.get(brandDAO::getAllBrands).all());
         } catch (SQLException e) {
             throw new AlmacenException("Error al obtener todas las marcas: " + e.getMessage(), e);
         }
@@ -56,6 +65,8 @@ public class BrandService {
             brandDAO.updateBrand(brand);
         } catch (SQLException e) {
             throw new AlmacenException("Error al actualizar marca: " + e.getMessage(), e);
+        } finally {
+            BRAND_CACHE.invalidate();
         }
     }
 
@@ -64,12 +75,14 @@ public class BrandService {
             brandDAO.deleteBrand(id);
         } catch (SQLException e) {
             throw new AlmacenException("Error al eliminar marca: " + e.getMessage(), e);
+        } finally {
+            BRAND_CACHE.invalidate();
         }
     }
 
     public Brand getBrandByName(String name) throws AlmacenException {
         try {
-            return brandDAO.getBrandByName(name);
+            return BRAND_CACHE.get(brandDAO::getAllBrands).byName(name);
         } catch (SQLException e) {
             throw new AlmacenException("Error al obtener marca por nombre: " + e.getMessage(), e);
         }
@@ -81,13 +94,20 @@ public class BrandService {
      */
     public String getBrandName(int brandId) throws AlmacenException {
         try {
-            Brand brand = brandDAO.getBrandById(brandId);
+            Brand brand = BRAND_CACHE.get(brandDAO::getAllBrands).byId(brandId);
             return brand != null ? brand.getName() : "General";
         } catch (SQLException e) {
             return "General";
         }
     }
 
+    /**
+     * Descarta la caché de marcas, p. ej. tras cambios hechos fuera de este servicio.
+     */
+    public static void invalidateCache() {
+        BRAND_CACHE.invalidate();
+    }
+
     private void validateBrand(Brand brand) throws AlmacenException {
         if (brand == null) {
             throw new AlmacenException("La marca no puede ser nula");
@@ -5,6 +5,7 @@ import com.mycompany.almacen.exception.AlmacenException;
 import com.mycompany.almacen.model.Category;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -12,6 +13,12 @@ import java.util.List;
  * Encapsula la lógica de negocio relacionada con categorías.
  */
 public class CategoryService {
+    /**
+     * Caché compartida por todas las instancias: la tabla es la misma para toda la aplicación.
+     */
+    private static final ReferenceDataCache<Category> CATEGORY_CACHE =
+        new ReferenceDataCache<>(Category::getId, Category::getName);
+
     private CategoryDAO categoryDAO;
 
     public CategoryService() {
@@ -31,12 +38,14 @@ public class CategoryService {
             categoryDAO.addCategory(category);
         } catch (SQLException e) {
             throw new AlmacenException("Error al agregar categoría: " + e.getMessage(), e);
+        } finally {
+            CATEGORY_CACHE.invalidate();
         }
     }
 
     public Category getCategoryById(int id) throws AlmacenException {
         try {
-            return categoryDAO.getCategoryById(id);
+            return CATEGORY_CACHE.get(categoryDAO::getAllCategories).byId(id);
         } catch (SQLException e) {
             throw new AlmacenException("Error al obtener categoría por ID: " + e.getMessage(), e);
         }
@@ -44,7 +53,7 @@ public class CategoryService {
 
     public List<Category> getAllCategories() throws AlmacenException {
         try {
-            return categoryDAO.getAllCategories();
+            return new ArrayList<>(CATEGORY_CACHE.get(categoryDAO::getAllCategories).all());
         } catch (SQLException e) {
             throw new AlmacenException("Error al obtener todas las categorías: " + e.getMessage(), e);
         }
@@ -56,6 +65,8 @@ public class CategoryService {
             categoryDAO.updateCategory(category);
         } catch (SQLException e) {
             throw new AlmacenException("Error al actualizar categoría: " + e.getMessage(), e);
+        } finally {
+            CATEGORY_CACHE.invalidate();
         }
     }
 
@@ -64,12 +75,14 @@ public class CategoryService {
             categoryDAO.deleteCategory(id);
         } catch (SQLException e) {
             throw new AlmacenException("Error al eliminar categoría: " + e.getMessage(), e);
+        } finally {
+            CATEGORY_CACHE.invalidate();
         }
     }
 
     public Category getCategoryByName(String name) throws AlmacenException {
         try {
-            return categoryDAO.getCategoryByName(name);
+            return CATEGORY_CACHE.get(categoryDAO::getAllCategories).byName(name);
         } catch (SQLException e) {
             throw new AlmacenException("Error al obtener categoría por nombre: " + e.getMessage(), e);
         }
@@ -81,13 +94,20 @@ public class CategoryService {
      */
     public String getCategoryName(int categoryId) throws AlmacenException {
         try {
-            Category category = categoryDAO.getCategoryById(categoryId);
+            Category category = CATEGORY_CACHE.get(categoryDAO::getAllCategories).byId(categoryId);
             return category != null ? category.getName() : "General";
         } catch (SQLException e) {
             return "General";
         }
     }
 
+    /**
+     * Descarta la caché de categorías, p. ej. tras cambios hechos fuera de este servicio.
+     */
+    public static void invalidateCache() {
+        CATEGORY_CACHE.invalidate();
+    }
+
     private void validateCategory(Category category) throws AlmacenException {
         if (category == null) {
             throw new AlmacenException("La categoría no puede ser nula");
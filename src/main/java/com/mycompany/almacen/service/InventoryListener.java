@@ -0,0 +1,38 @@
+package com.mycompany.almacen.service;
+
+import com.mycompany.almacen.model.Invoice;
+import com.mycompany.almacen.model.Product;
+
+import java.util.Map;
+
+/**
+ * Eventos de cambio que publican ProductService e InvoiceService tras confirmar
+ * cada escritura. Permiten mantener vistas derivadas sin releer la base de datos.
+ */
+public interface InventoryListener {
+
+    /**
+     * Producto agregado o actualizado; recibe el estado nuevo.
+     */
+    default void productSaved(Product product) {
+    }
+
+    default void productDeleted(int productId) {
+    }
+
+    /**
+     * Cambios de stock confirmados (productId → cambio de cantidad).
+     */
+    default void stockChanged(Map<Integer, Integer> quantityChanges) {
+    }
+
+    default void saleRecorded(Invoice invoice) {
+    }
+
+    /**
+     * Carga masiva confirmada. No se publica un evento por producto: las vistas
+     * derivadas deben releer lo que necesiten.
+     */
+    default void productsImported(int count) {
+    }
+}
@@ -0,0 +1,130 @@
+package com.mycompany.almacen.service;
+
+import com.mycompany.almacen.dao.InvoiceDAO;
+import com.mycompany.almacen.exception.AlmacenException;
+import com.mycompany.almacen.metrics.MetricsRegistry;
+import com.mycompany.almacen.metrics.OperationStats;
+import com.mycompany.almacen.model.InvoiceLine;
+import com.mycompany.almacen.util.CsvWriter;
+import com.mycompany.almacen.util.DateCodec;
+import com.mycompany.almacen.util.Money;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Exportación de facturas e ítems a CSV en streaming.
+ *
+ * Las filas van del cursor de la base al archivo a través de un buffer fijo,
+ * así que la memoria no depende del tamaño de la historia. Se escribe a un
+ * archivo temporal que reemplaza al destino solo si la exportación termina.
+ */
+public class InvoiceExportService {
+
+    private static final int WRITE_BUFFER_CHARS = 64 * 1024;
+    private static final int PROGRESS_INTERVAL_ROWS = 1000;
+    private static final OperationStats EXPORT = MetricsRegistry.shared().operation("service.InvoiceExportService.exportInvoicesCsv");
+
+    private static final String[] HEADER = {
+        "factura_id", "fecha", "cliente", "tipo", "total_factura", "descripcion",
+        "producto_id", "producto", "cantidad", "precio_unitario", "subtotal"
+    };
+
+    /**
+     * Recibe el avance (filas escritas sobre filas totales) desde el hilo que exporta.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(long rowsWritten, long totalRows);
+    }
+
+    private final InvoiceDAO invoiceDAO;
+
+    public InvoiceExportService() {
+        this(new InvoiceDAO());
+    }
+
+    public InvoiceExportService(InvoiceDAO invoiceDAO) {
+        this.invoiceDAO = invoiceDAO;
+    }
+
+    /**
+     * Exporta todas las facturas a {@code dest}. Devuelve las filas escritas, o -1
+     * si {@code cancelled} se activó (en ese caso el destino no se modifica).
+     */
+    public long exportInvoicesCsv(File dest, ProgressListener progress, BooleanSupplier cancelled) throws AlmacenException {
+        long start = System.nanoTime();
+        File parent = dest.getAbsoluteFile().getParentFile();
+        File temp = null;
+        try {
+            long totalRows = invoiceDAO.countInvoiceLines();
+            temp = File.createTempFile("facturas-", ".csv.part", parent);
+
+            long[] written = {0};
+            boolean completed;
+            try (CsvWriter csv = new CsvWriter(new BufferedWriter(
+                    new OutputStreamWriter(Files.newOutputStream(temp.toPath()), StandardCharsets.UTF_8),
+                    WRITE_BUFFER_CHARS))) {
+                csv.writeRow(HEADER);
+                invoiceDAO.streamInvoiceLines(line -> {
+                    if (cancelled.getAsBoolean() || Thread.currentThread().isInterrupted()) {
+                        return false;
+                    }
+                    writeLine(csv, line);
+                    written[0]++;
+                    if (written[0] % PROGRESS_INTERVAL_ROWS == 0) {
+                        progress.onProgress(written[0], totalRows);
+                    }
+                    return true;
+                });
+                completed = !cancelled.getAsBoolean() && !Thread.currentThread().isInterrupted();
+            }
+
+            if (!completed) {
+                return -1;
+            }
+            Files.move(temp.toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            temp = null;
+            progress.onProgress(written[0], Math.max(totalRows, written[0]));
+            EXPORT.record(start, written[0]);
+            System.out.println("Exported " + written[0] + " invoice rows to " + dest);
+            return written[0];
+        } catch (SQLException e) {
+            throw new AlmacenException("Error al leer las facturas para exportar: " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new AlmacenException("Error al escribir el archivo CSV: " + e.getMessage(), e);
+        } finally {
+            if (temp != null && !temp.delete()) {
+                temp.deleteOnExit();
+            }
+        }
+    }
+
+    private static void writeLine(CsvWriter csv, InvoiceLine line) throws IOException {
+        csv.writeField(line.getInvoiceId());
+        csv.writeField(DateCodec.formatIsoDateTime(line.getInvoiceDateMillis()));
+        csv.writeField(line.getCustomerName());
+        csv.writeField(line.getInvoiceType());
+        csv.writeField(Money.toPlainString(line.getTotalAmountCents()));
+        csv.writeField(line.getDescription());
+        if (line.getProductId() != 0) {
+            csv.writeField(line.getProductId());
+            csv.writeField(line.getProductName());
+            csv.writeField(line.getQuantity());
+            csv.writeField(Money.toPlainString(line.getUnitPriceCents()));
+            csv.writeField(Money.toPlainString(line.getUnitPriceCents() * line.getQuantity()));
+        } else {
+            for (int i = 0; i < 5; i++) {
+                csv.writeField(null);
+            }
+        }
+        csv.endRow();
+    }
+}
@@ -2,26 +2,54 @@ package com.mycompany.almacen.service;
 
 import com.mycompany.almacen.dao.InvoiceDAO;
 import com.mycompany.almacen.dao.InvoiceItemDAO;
+import com.mycompany.almacen.dao.KeysetPage;
 import com.mycompany.almacen.dao.ProductDAO;
 import com.mycompany.almacen.database.DatabaseManager;
 import com.mycompany.almacen.exception.AlmacenException;
+import com.mycompany.almacen.exception.StockConflictException;
 import com.mycompany.almacen.exception.ValidationException;
+import com.mycompany.almacen.metrics.MetricsRegistry;
+import com.mycompany.almacen.metrics.OperationStats;
 import com.mycompany.almacen.model.Invoice;
 import com.mycompany.almacen.model.InvoiceItem;
 
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 /**
  * Servicio para la gestión de facturas.
  * Encapsula la lógica de negocio relacionada con facturas e ítems.
  */
 public class InvoiceService {
+    private static final OperationStats PROCESS_SALE = MetricsRegistry.shared().operation("service.InvoiceService.processSale");
+    // Cubre la espera por lugar en la cola llena y un commit lento
+    private static final long WRITE_TIMEOUT_SECONDS = 60;
+
+    // Un solo hilo: los oyentes reciben las ventas en el orden del commit sin
+    // demorar al hilo de escritura ni al resto del grupo
+    private static final ExecutorService SALE_EVENTS = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sale-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private InvoiceDAO invoiceDAO;
     private InvoiceItemDAO invoiceItemDAO;
     private ProductDAO productDAO;
+    private final List<InventoryListener> listeners = new CopyOnWriteArrayList<>();
 
     /**
      * Constructor por defecto con inicialización interna de DAOs.
@@ -39,10 +67,19 @@ public class InvoiceService {
         this.productDAO = productDAO;
     }
 
+    /**
+     * Registra un oyente de cambios de inventario y ventas.
+     */
+    public void addInventoryListener(InventoryListener listener) {
+        listeners.add(listener);
+    }
+
     public int addInvoice(Invoice invoice) throws AlmacenException {
         try {
             validateInvoice(invoice);
-            return invoiceDAO.addInvoice(invoice);
+            int invoiceId = invoiceDAO.addInvoice(invoice);
+            notifyListeners(listener -> listener.saleRecorded(invoice));
+            return invoiceId;
         } catch (ValidationException e) {
             throw e;
         } catch (SQLException e) {
@@ -66,6 +103,18 @@ public class InvoiceService {
         }
     }
 
+    /**
+     * Obtiene una página de facturas, de la más reciente a la más antigua.
+     * {@code type} es opcional y {@code after} es la última factura ya mostrada.
+     */
+    public KeysetPage<Invoice> getInvoicesPage(Invoice.InvoiceType type, Invoice after, int pageSize) throws AlmacenException {
+        try {
+            return invoiceDAO.getInvoicesPage(type, after, pageSize);
+        } catch (SQLException e) {
+            throw new AlmacenException("Error al obtener página de facturas: " + e.getMessage(), e);
+        }
+    }
+
     public void addInvoiceItem(InvoiceItem item) throws AlmacenException {
         try {
             validateInvoiceItem(item);
@@ -85,45 +134,143 @@ public class InvoiceService {
         }
     }
 
+    /**
+     * Aplica el cambio de stock a través de la cola de escritura.
+     *
+     * @throws StockConflictException si el cambio dejaría el stock en negativo
+     */
     public void updateProductStock(int productId, int quantityChange) throws AlmacenException {
-        try {
-            productDAO.updateProductStock(productId, quantityChange);
-        } catch (SQLException e) {
-            throw new AlmacenException("Error al actualizar stock del producto: " + e.getMessage(), e);
+        boolean applied = awaitWrite(
+            DatabaseManager.getWriteQueue().submit(conn -> productDAO.updateProductStock(conn, productId, quantityChange)),
+            "Error al actualizar stock del producto");
+        if (!applied) {
+            throw new StockConflictException("Stock insuficiente para el producto " + productId,
+                    Collections.singletonList(productId));
         }
+        notifyListeners(listener -> listener.stockChanged(Collections.singletonMap(productId, quantityChange)));
     }
 
+    /**
+     * Registra una venta completa y espera su confirmación. Ver
+     * {@link #processSaleAsync(Invoice, List)}.
+     */
     public int processSale(Invoice invoice, List<InvoiceItem> items) throws AlmacenException {
-        validateInvoice(invoice);
-        
-        try (Connection conn = DatabaseManager.getConnection()) {
-            conn.setAutoCommit(false);
-            
+        return awaitWrite(processSaleAsync(invoice, items), "Error al procesar venta");
+    }
+
+    /**
+     * Encola una venta completa (factura, ítems y descuento de stock) en la cola
+     * de escritura, que la confirma junto con las demás ventas pendientes en un
+     * único commit. El stock se descuenta de forma condicional: si otra caja
+     * vendió antes, solo esta venta se deshace.
+     *
+     * El future da el ID de la factura, o falla con ValidationException,
+     * StockConflictException o el SQLException del commit. Los oyentes se
+     * notifican después del commit, en un hilo aparte y fuera de ese future:
+     * si fallan, la venta igual se informa como confirmada. No se debe esperar
+     * el resultado teniendo tomada la conexión de escritura.
+     */
+    public CompletableFuture<Integer> processSaleAsync(Invoice invoice, List<InvoiceItem> items) {
+        long start = System.nanoTime();
+        Map<Integer, Integer> stockChanges = new LinkedHashMap<>();
+        try {
+            validateInvoice(invoice);
+            for (InvoiceItem item : items) {
+                validateInvoiceItem(item);
+                stockChanges.merge(item.getProductId(), -item.getQuantity(), Integer::sum);
+            }
+        } catch (ValidationException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<Integer> sale = DatabaseManager.getWriteQueue()
+            .submit(conn -> writeSale(conn, invoice, items, stockChanges));
+        sale.thenAccept(invoiceId -> PROCESS_SALE.recordNanos(System.nanoTime() - start));
+        sale.thenRunAsync(() -> notifyListeners(listener -> {
+            listener.stockChanged(stockChanges);
+            listener.saleRecorded(invoice);
+        }), SALE_EVENTS);
+        return sale;
+    }
+
+    /**
+     * Avisa a los oyentes de un cambio ya confirmado. Un oyente que falla solo
+     * se registra: la escritura no se deshace ni se informa como fallida.
+     */
+    private void notifyListeners(Consumer<InventoryListener> event) {
+        for (InventoryListener listener : listeners) {
             try {
-                invoice.setId(0);
-                int invoiceId = invoiceDAO.addInvoice(conn, invoice);
-                
-                for (InvoiceItem item : items) {
-                    validateInvoiceItem(item);
-                    item.setInvoiceId(invoiceId);
-                    invoiceItemDAO.addInvoiceItem(conn, item);
-                    productDAO.updateProductStock(item.getProductId(), -item.getQuantity());
-                }
-                
-                conn.commit();
-                return invoiceId;
-                
-            } catch (Exception e) {
-                conn.rollback();
-                throw new AlmacenException("Error al procesar venta: " + e.getMessage(), e);
-            } finally {
-                conn.setAutoCommit(true);
+                event.accept(listener);
+            } catch (RuntimeException e) {
+                System.err.println("Error notificando a " + listener.getClass().getSimpleName() + ": " + e);
             }
-        } catch (SQLException e) {
-            throw new AlmacenException("Error de base de datos al procesar venta: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Inserta factura e ítems y descuenta el stock sobre la transacción en curso.
+     * Los ítems y los cambios de stock se envían como batches.
+     */
+    private int writeSale(Connection conn, Invoice invoice, List<InvoiceItem> items,
+                          Map<Integer, Integer> stockChanges) throws SQLException, StockConflictException {
+        invoice.setId(0);
+        int invoiceId = invoiceDAO.addInvoice(conn, invoice);
+        for (InvoiceItem item : items) {
+            item.setInvoiceId(invoiceId);
+        }
+        invoiceItemDAO.addInvoiceItems(conn, items);
+        List<Integer> conflicts = productDAO.updateProductStockBatch(conn, stockChanges);
+        if (!conflicts.isEmpty()) {
+            throw new StockConflictException("Stock insuficiente: otra venta se registró antes para "
+                    + (conflicts.size() == 1 ? "el producto " : "los productos ") + conflicts, conflicts);
+        }
+        invoice.setId(invoiceId);
+        return invoiceId;
+    }
+
+    /**
+     * Espera una escritura encolada, como máximo {@value #WRITE_TIMEOUT_SECONDS} s,
+     * y traduce su fallo a AlmacenException.
+     */
+    private static <T> T awaitWrite(CompletableFuture<T> write, String errorMessage) throws AlmacenException {
+        try {
+            return write.get(WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AlmacenException(errorMessage + ": se interrumpió la espera (la operación pudo haberse confirmado)", e);
+        } catch (TimeoutException e) {
+            throw new AlmacenException(errorMessage + ": la cola de escritura no respondió a tiempo (la operación pudo haberse confirmado)", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof AlmacenException) {
+                throw (AlmacenException) cause;
+            }
+            throw new AlmacenException(errorMessage + ": " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Duración promedio de las ventas confirmadas, en milisegundos.
+     */
+    public double getAverageSaleLatencyMillis() {
+        return PROCESS_SALE.getMeanMillis();
+    }
+
+    public double getMaxSaleLatencyMillis() {
+        return PROCESS_SALE.getMaxMillis();
+    }
+
+    /**
+     * Percentil 99 de la duración de las ventas, en milisegundos.
+     */
+    public double getP99SaleLatencyMillis() {
+        return PROCESS_SALE.getP99Millis();
+    }
+
+    public long getSaleCount() {
+        return PROCESS_SALE.getCount();
+    }
+
     private void validateInvoice(Invoice invoice) throws ValidationException {
         ValidationException exception = new ValidationException("Errores de validación en la factura");
 
@@ -133,6 +280,9 @@ public class InvoiceService {
             if (invoice.getCustomerName() == null || invoice.getCustomerName().trim().isEmpty()) {
                 exception.addFieldError("customerName", "El nombre del cliente es obligatorio");
             }
+            if (!invoice.hasInvoiceDate()) {
+                exception.addFieldError("invoiceDate", "La fecha de la factura es obligatoria");
+            }
             if (invoice.getTotalAmount() < 0) {
                 exception.addFieldError("totalAmount", "El monto total debe ser mayor o igual a cero");
             }
@@ -0,0 +1,241 @@
+package com.mycompany.almacen.service;
+
+import com.mycompany.almacen.dao.KpiDAO;
+import com.mycompany.almacen.exception.AlmacenException;
+import com.mycompany.almacen.model.DashboardKpis;
+import com.mycompany.almacen.model.Invoice;
+import com.mycompany.almacen.model.Product;
+import com.mycompany.almacen.util.DateCodec;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contadores del Dashboard mantenidos de forma incremental.
+ *
+ * Escucha los eventos de ProductService e InvoiceService y aplica deltas a
+ * valor de inventario, stock bajo, total de productos y ventas del día, de
+ * modo que leer las métricas es O(1). Guarda precio y stock por producto para
+ * calcular cada delta exacto, y se resincroniza periódicamente desde SQLite
+ * para absorber cambios hechos por otras cajas. Los montos se acumulan en
+ * centavos, así que los deltas no arrastran error de redondeo.
+ */
+public class KpiAggregator implements InventoryListener {
+
+    private static final long RESYNC_INTERVAL_MINUTES = 5;
+
+    private static class StockLevel {
+        long priceCents;
+        int stock;
+
+        StockLevel(long priceCents, int stock) {
+            this.priceCents = priceCents;
+            this.stock = stock;
+        }
+    }
+
+    private final KpiService kpiService;
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService scheduler;
+
+    // Estado protegido por el monitor de esta instancia
+    private Map<Integer, StockLevel> levels = new HashMap<>();
+    private long inventoryValueCents;
+    private int lowStockCount;
+    private long dailySalesCents;
+    private int dailySalesCount;
+    private LocalDate day = LocalDate.now();
+    private long eventEpoch;
+    private boolean synced;
+
+    public KpiAggregator(KpiService kpiService) {
+        this.kpiService = kpiService;
+    }
+
+    /**
+     * Carga el estado inicial en segundo plano y programa la resincronización periódica.
+     */
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "kpi-resync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::resyncQuietly, 0, RESYNC_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Registra un callback que se invoca (en el hilo del evento) cuando cambian las métricas.
+     */
+    public void addChangeListener(Runnable listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Devuelve las métricas actuales sin consultar la base de datos.
+     */
+    public synchronized DashboardKpis snapshot() {
+        rollDayIfNeeded();
+        return new DashboardKpis(inventoryValueCents, lowStockCount, levels.size(), dailySalesCents, dailySalesCount);
+    }
+
+    public synchronized boolean isSynced() {
+        return synced;
+    }
+
+    /**
+     * Recalcula todos los contadores desde SQLite. Valor de inventario, stock
+     * bajo y total de productos salen de la misma lectura que los niveles por
+     * producto, así los deltas posteriores parten de una sola instantánea; las
+     * ventas del día se leen aparte porque no dependen de ella.
+     */
+    public void resync() throws AlmacenException {
+        long epochAtStart;
+        synchronized (this) {
+            epochAtStart = eventEpoch;
+        }
+        LocalDate today = LocalDate.now();
+        DashboardKpis totals = kpiService.getDashboardKpis(today);
+        Map<Integer, StockLevel> loaded = new HashMap<>();
+        kpiService.visitStockLevels((id, priceCents, stock) -> loaded.put(id, new StockLevel(priceCents, stock)));
+
+        boolean missedEvents;
+        synchronized (this) {
+            levels = loaded;
+            inventoryValueCents = 0;
+            lowStockCount = 0;
+            for (StockLevel level : loaded.values()) {
+                add(level);
+            }
+            dailySalesCents = totals.getDailySalesCents();
+            dailySalesCount = totals.getDailySalesCount();
+            day = today;
+            synced = true;
+            // Un evento confirmado durante la lectura pudo quedar fuera de la instantánea
+            missedEvents = eventEpoch != epochAtStart;
+        }
+        if (missedEvents && scheduler != null && !scheduler.isShutdown()) {
+            scheduler.schedule(this::resyncQuietly, 1, TimeUnit.SECONDS);
+        }
+        fireChanged();
+    }
+
+    private void resyncQuietly() {
+        try {
+            resync();
+        } catch (AlmacenException e) {
+            System.err.println("Error resincronizando métricas: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void productSaved(Product product) {
+        synchronized (this) {
+            eventEpoch++;
+            StockLevel level = levels.get(product.getId());
+            if (level == null) {
+                level = new StockLevel(0, 0);
+                levels.put(product.getId(), level);
+            } else {
+                remove(level);
+            }
+            level.priceCents = product.getPriceCents();
+            level.stock = product.getStock();
+            add(level);
+        }
+        fireChanged();
+    }
+
+    @Override
+    public void productDeleted(int productId) {
+        synchronized (this) {
+            eventEpoch++;
+            StockLevel level = levels.remove(productId);
+            if (level != null) {
+                remove(level);
+            }
+        }
+        fireChanged();
+    }
+
+    @Override
+    public void stockChanged(Map<Integer, Integer> quantityChanges) {
+        synchronized (this) {
+            eventEpoch++;
+            for (Map.Entry<Integer, Integer> change : quantityChanges.entrySet()) {
+                StockLevel level = levels.get(change.getKey());
+                if (level == null) {
+                    continue; // producto creado por otra caja: lo trae la próxima resincronización
+                }
+                remove(level);
+                level.stock = Math.max(0, level.stock + change.getValue());
+                add(level);
+            }
+        }
+        fireChanged();
+    }
+
+    @Override
+    public void saleRecorded(Invoice invoice) {
+        synchronized (this) {
+            eventEpoch++;
+            rollDayIfNeeded();
+            if (invoice.hasInvoiceDate() && DateCodec.toLocalDate(invoice.getInvoiceDateMillis()).equals(day)) {
+                dailySalesCents += invoice.getTotalAmountCents();
+                dailySalesCount++;
+            }
+        }
+        fireChanged();
+    }
+
+    @Override
+    public void productsImported(int count) {
+        synchronized (this) {
+            eventEpoch++;
+        }
+        if (scheduler != null && !scheduler.isShutdown()) {
+            scheduler.execute(this::resyncQuietly);
+        }
+    }
+
+    private void add(StockLevel level) {
+        inventoryValueCents += level.priceCents * level.stock;
+        if (level.stock <= KpiDAO.LOW_STOCK_THRESHOLD) {
+            lowStockCount++;
+        }
+    }
+
+    private void remove(StockLevel level) {
+        inventoryValueCents -= level.priceCents * level.stock;
+        if (level.stock <= KpiDAO.LOW_STOCK_THRESHOLD) {
+            lowStockCount--;
+        }
+    }
+
+    private void rollDayIfNeeded() {
+        LocalDate today = LocalDate.now();
+        if (!today.equals(day)) {
+            day = today;
+            dailySalesCents = 0;
+            dailySalesCount = 0;
+        }
+    }
+
+    private void fireChanged() {
+        for (Runnable listener : changeListeners) {
+            listener.run();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.mycompany.almacen.service;
+
+import com.mycompany.almacen.dao.KpiDAO;
+import com.mycompany.almacen.exception.AlmacenException;
+import com.mycompany.almacen.model.DashboardKpis;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Servicio de métricas del Dashboard.
+ * Calcula los indicadores con agregados SQL en lugar de cargar tablas completas.
+ */
+public class KpiService {
+    private KpiDAO kpiDAO;
+
+    public KpiService() {
+        this(new KpiDAO());
+    }
+
+    /**
+     * Constructor con inyección de dependencias para testing.
+     */
+    public KpiService(KpiDAO kpiDAO) {
+        this.kpiDAO = kpiDAO;
+    }
+
+    /**
+     * Obtiene los indicadores del día actual.
+     */
+    public DashboardKpis getDashboardKpis() throws AlmacenException {
+        return getDashboardKpis(LocalDate.now());
+    }
+
+    public DashboardKpis getDashboardKpis(LocalDate day) throws AlmacenException {
+        try {
+            return kpiDAO.getDashboardKpis(day);
+        } catch (SQLException e) {
+            throw new AlmacenException("Error al calcular métricas: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Recorre precio y stock de todos los productos (para contadores incrementales).
+     */
+    public void visitStockLevels(KpiDAO.StockLevelVisitor visitor) throws AlmacenException {
+        try {
+            kpiDAO.visitStockLevels(visitor);
+        } catch (SQLException e) {
+            throw new AlmacenException("Error al leer niveles de stock: " + e.getMessage(), e);
+        }
+    }
+}
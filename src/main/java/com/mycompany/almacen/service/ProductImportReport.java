@@ -0,0 +1,70 @@
+package com.mycompany.almacen.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado de una importación de productos: filas aplicadas, errores por fila
+ * y referencias creadas en el camino.
+ */
+public class ProductImportReport {
+
+    /**
+     * Fila rechazada, con la línea del archivo y los errores por campo.
+     */
+    public static class RowError {
+        private final int lineNumber;
+        private final Map<String, String> fieldErrors;
+
+        RowError(int lineNumber, Map<String, String> fieldErrors) {
+            this.lineNumber = lineNumber;
+            this.fieldErrors = fieldErrors;
+        }
+
+        public int getLineNumber() { return lineNumber; }
+        public Map<String, String> getFieldErrors() { return fieldErrors; }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("Línea ").append(lineNumber).append(':');
+            for (Map.Entry<String, String> error : fieldErrors.entrySet()) {
+                sb.append(' ').append(error.getKey()).append(" → ").append(error.getValue()).append(';');
+            }
+            return sb.toString();
+        }
+    }
+
+    private int rowsRead;
+    private int imported;
+    private boolean cancelled;
+    private long elapsedMillis;
+    private final List<RowError> errors = new ArrayList<>();
+    private final List<String> createdBrands = new ArrayList<>();
+    private final List<String> createdCategories = new ArrayList<>();
+
+    public int getRowsRead() { return rowsRead; }
+    void setRowsRead(int rowsRead) { this.rowsRead = rowsRead; }
+    public int getImported() { return imported; }
+    void addImported(int count) { this.imported += count; }
+    public boolean isCancelled() { return cancelled; }
+    void setCancelled(boolean cancelled) { this.cancelled = cancelled; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+
+    public List<RowError> getErrors() { return Collections.unmodifiableList(errors); }
+    void addError(int lineNumber, Map<String, String> fieldErrors) { errors.add(new RowError(lineNumber, fieldErrors)); }
+
+    public List<String> getCreatedBrands() { return Collections.unmodifiableList(createdBrands); }
+    void addCreatedBrand(String name) { createdBrands.add(name); }
+    public List<String> getCreatedCategories() { return Collections.unmodifiableList(createdCategories); }
+    void addCreatedCategory(String name) { createdCategories.add(name); }
+
+    @Override
+    public String toString() {
+        return "Product import: read=" + rowsRead + " imported=" + imported + " rejected=" + errors.size()
+                + " newBrands=" + createdBrands.size() + " newCategories=" + createdCategories.size()
+                + " elapsed=" + elapsedMillis + "ms" + (cancelled ? " (cancelled)" : "");
+    }
+}
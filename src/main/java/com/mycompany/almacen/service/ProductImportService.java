@@ -0,0 +1,322 @@
+package com.mycompany.almacen.service;
+
+import com.mycompany.almacen.dao.BrandDAO;
+import com.mycompany.almacen.dao.CategoryDAO;
+import com.mycompany.almacen.dao.ProductDAO;
+import com.mycompany.almacen.database.DatabaseManager;
+import com.mycompany.almacen.exception.AlmacenException;
+import com.mycompany.almacen.exception.ValidationException;
+import com.mycompany.almacen.metrics.MetricsRegistry;
+import com.mycompany.almacen.metrics.OperationStats;
+import com.mycompany.almacen.model.Brand;
+import com.mycompany.almacen.model.Category;
+import com.mycompany.almacen.model.Product;
+import com.mycompany.almacen.util.CsvReader;
+import com.mycompany.almacen.util.Money;
+import com.mycompany.almacen.util.TextNormalizer;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Importación masiva de productos desde CSV.
+ *
+ * El archivo se lee en streaming y cada fila se valida con las mismas reglas
+ * que el alta manual. Las filas válidas se aplican en lotes de
+ * {@value #BATCH_SIZE} por transacción como upsert por nombre; las inválidas
+ * quedan en el reporte con su línea y sus errores por campo. Marcas y
+ * categorías se resuelven por nombre y se crean si no existen.
+ */
+public class ProductImportService {
+
+    static final int BATCH_SIZE = 1000;
+    private static final int READ_BUFFER_CHARS = 64 * 1024;
+    private static final String DEFAULT_REFERENCE = "General";
+    private static final OperationStats IMPORT = MetricsRegistry.shared().operation("service.ProductImportService.importProductsCsv");
+
+    /**
+     * Columnas reconocidas; la cabecera puede venir en español o en inglés.
+     * El nombre del campo coincide con el de los errores de validación.
+     */
+    private enum Column {
+        NAME("name", true, "nombre", "name", "producto"),
+        DESCRIPTION("description", false, "descripcion", "description"),
+        PRICE("price", true, "precio", "price"),
+        STOCK("stock", false, "stock", "cantidad"),
+        CATEGORY("category", false, "categoria", "category"),
+        BRAND("brand", false, "marca", "brand"),
+        MODEL("model", false, "modelo", "model");
+
+        private final String field;
+        private final boolean required;
+        private final List<String> aliases;
+
+        Column(String field, boolean required, String... aliases) {
+            this.field = field;
+            this.required = required;
+            this.aliases = Arrays.asList(aliases);
+        }
+    }
+
+    /**
+     * Recibe el avance (filas leídas y filas aplicadas) tras cada lote.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(int rowsRead, int imported);
+    }
+
+    private final ProductDAO productDAO;
+    private final BrandDAO brandDAO;
+    private final CategoryDAO categoryDAO;
+    private final BrandService brandService;
+    private final CategoryService categoryService;
+    private final List<InventoryListener> listeners = new CopyOnWriteArrayList<>();
+
+    public ProductImportService() {
+        this(new ProductDAO(), new BrandDAO(), new CategoryDAO());
+    }
+
+    public ProductImportService(ProductDAO productDAO, BrandDAO brandDAO, CategoryDAO categoryDAO) {
+        this.productDAO = productDAO;
+        this.brandDAO = brandDAO;
+        this.categoryDAO = categoryDAO;
+        this.brandService = new BrandService(brandDAO);
+        this.categoryService = new CategoryService(categoryDAO);
+    }
+
+    public void addInventoryListener(InventoryListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Importa los productos de {@code source}. Los lotes ya confirmados quedan
+     * aplicados aunque luego se cancele o falle la base; el reporte indica
+     * cuántas filas se aplicaron.
+     *
+     * @throws ValidationException si la cabecera no tiene las columnas obligatorias
+     */
+    public ProductImportReport importProductsCsv(File source, ProgressListener progress, BooleanSupplier cancelled)
+            throws AlmacenException {
+        long start = System.nanoTime();
+        ProductImportReport report = new ProductImportReport();
+        try (CsvReader csv = new CsvReader(new BufferedReader(
+                new InputStreamReader(Files.newInputStream(source.toPath()), StandardCharsets.UTF_8),
+                READ_BUFFER_CHARS))) {
+            String[] header = csv.readRow();
+            if (header == null) {
+                throw new ValidationException("El archivo está vacío");
+            }
+            int[] columns = mapColumns(header);
+
+            Map<String, Integer> brandIds = new HashMap<>();
+            for (Brand brand : brandService.getAllBrands()) {
+                brandIds.put(TextNormalizer.normalize(brand.getName()), brand.getId());
+            }
+            Map<String, Integer> categoryIds = new HashMap<>();
+            for (Category category : categoryService.getAllCategories()) {
+                categoryIds.put(TextNormalizer.normalize(category.getName()), category.getId());
+            }
+
+            List<Product> batch = new ArrayList<>(BATCH_SIZE);
+            int rowsRead = 0;
+            String[] row;
+            while ((row = csv.readRow()) != null) {
+                if (cancelled.getAsBoolean() || Thread.currentThread().isInterrupted()) {
+                    report.setCancelled(true);
+                    break;
+                }
+                rowsRead++;
+                try {
+                    batch.add(parseRow(row, columns));
+                } catch (ValidationException e) {
+                    report.addError(csv.getLineNumber(), e.getFieldErrors());
+                }
+                if (batch.size() == BATCH_SIZE) {
+                    applyBatch(batch, brandIds, categoryIds, report);
+                    batch.clear();
+                    report.setRowsRead(rowsRead);
+                    progress.onProgress(rowsRead, report.getImported());
+                }
+            }
+            if (!report.isCancelled() && !batch.isEmpty()) {
+                applyBatch(batch, brandIds, categoryIds, report);
+            }
+            report.setRowsRead(rowsRead);
+            progress.onProgress(rowsRead, report.getImported());
+        } catch (SQLException e) {
+            throw new AlmacenException("Error al importar productos (" + report.getImported()
+                    + " ya aplicados): " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new AlmacenException("Error al leer el archivo CSV: " + e.getMessage(), e);
+        } finally {
+            if (report.getImported() > 0) {
+                BrandService.invalidateCache();
+                CategoryService.invalidateCache();
+                for (InventoryListener listener : listeners) {
+                    listener.productsImported(report.getImported());
+                }
+            }
+        }
+        report.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        IMPORT.record(start, report.getImported());
+        System.out.println(report);
+        return report;
+    }
+
+    /**
+     * Ubica cada columna conocida en la cabecera (-1 si falta).
+     */
+    private static int[] mapColumns(String[] header) throws ValidationException {
+        int[] columns = new int[Column.values().length];
+        Arrays.fill(columns, -1);
+        for (int i = 0; i < header.length; i++) {
+            String name = TextNormalizer.normalize(header[i]);
+            for (Column column : Column.values()) {
+                if (columns[column.ordinal()] < 0 && column.aliases.contains(name)) {
+                    columns[column.ordinal()] = i;
+                }
+            }
+        }
+        ValidationException exception = new ValidationException("Faltan columnas obligatorias en la cabecera");
+        for (Column column : Column.values()) {
+            if (column.required && columns[column.ordinal()] < 0) {
+                exception.addFieldError(column.field, "Falta la columna " + column.aliases.get(0));
+            }
+        }
+        if (exception.hasErrors()) {
+            throw exception;
+        }
+        return columns;
+    }
+
+    /**
+     * Convierte una fila en producto. Marca y categoría quedan por nombre y se
+     * resuelven al aplicar el lote.
+     */
+    private static Product parseRow(String[] row, int[] columns) throws ValidationException {
+        Map<String, String> errors = new LinkedHashMap<>();
+
+        long priceCents = 0;
+        String priceText = value(row, columns, Column.PRICE);
+        if (priceText.isEmpty()) {
+            errors.put(Column.PRICE.field, "El precio es obligatorio");
+        } else {
+            try {
+                priceCents = Money.parseCents(priceText);
+            } catch (NumberFormatException | ArithmeticException e) {
+                errors.put(Column.PRICE.field, "Precio inválido: " + priceText);
+            }
+        }
+
+        int stock = 0;
+        String stockText = value(row, columns, Column.STOCK);
+        if (!stockText.isEmpty()) {
+            try {
+                stock = Integer.parseInt(stockText);
+            } catch (NumberFormatException e) {
+                errors.put(Column.STOCK.field, "Stock inválido: " + stockText);
+            }
+        }
+
+        Product product = new Product(
+            0,
+            value(row, columns, Column.NAME),
+            emptyToNull(value(row, columns, Column.DESCRIPTION)),
+            0,
+            stock,
+            0,
+            0,
+            emptyToNull(value(row, columns, Column.MODEL))
+        );
+        product.setPriceCents(priceCents);
+        product.setCategoryName(orDefault(value(row, columns, Column.CATEGORY)));
+        product.setBrandName(orDefault(value(row, columns, Column.BRAND)));
+
+        try {
+            ProductService.validateProduct(product);
+        } catch (ValidationException e) {
+            for (Map.Entry<String, String> error : e.getFieldErrors().entrySet()) {
+                // La marca se resuelve por nombre al aplicar el lote
+                if (!"brandId".equals(error.getKey())) {
+                    errors.putIfAbsent(error.getKey(), error.getValue());
+                }
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new ValidationException("Fila inválida", errors);
+        }
+        return product;
+    }
+
+    /**
+     * Resuelve referencias y aplica el lote en una transacción de la conexión de
+     * escritura, que se libera entre lotes.
+     */
+    private void applyBatch(List<Product> batch, Map<String, Integer> brandIds, Map<String, Integer> categoryIds,
+                            ProductImportReport report) throws SQLException {
+        List<String> newBrands = new ArrayList<>();
+        List<String> newCategories = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (Product product : batch) {
+                    String brandKey = TextNormalizer.normalize(product.getBrandName());
+                    Integer brandId = brandIds.get(brandKey);
+                    if (brandId == null) {
+                        brandId = brandDAO.findOrCreateBrandId(conn, product.getBrandName());
+                        brandIds.put(brandKey, brandId);
+                        newBrands.add(product.getBrandName());
+                    }
+                    product.setBrandId(brandId);
+
+                    String categoryKey = TextNormalizer.normalize(product.getCategoryName());
+                    Integer categoryId = categoryIds.get(categoryKey);
+                    if (categoryId == null) {
+                        categoryId = categoryDAO.findOrCreateCategoryId(conn, product.getCategoryName());
+                        categoryIds.put(categoryKey, categoryId);
+                        newCategories.add(product.getCategoryName());
+                    }
+                    product.setCategoryId(categoryId);
+                }
+                productDAO.upsertProductsBatch(conn, batch);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        report.addImported(batch.size());
+        newBrands.forEach(report::addCreatedBrand);
+        newCategories.forEach(report::addCreatedCategory);
+    }
+
+    private static String value(String[] row, int[] columns, Column column) {
+        int index = columns[column.ordinal()];
+        return index >= 0 && index < row.length ? row[index].trim() : "";
+    }
+
+    private static String emptyToNull(String text) {
+        return text.isEmpty() ? null : text;
+    }
+
+    private static String orDefault(String name) {
+        return name.isEmpty() ? DEFAULT_REFERENCE : name;
+    }
+}
@@ -0,0 +1,95 @@
+package com.mycompany.almacen.service;
+
+import com.mycompany.almacen.metrics.MetricsRegistry;
+import com.mycompany.almacen.metrics.OperationStats;
+import com.mycompany.almacen.model.Product;
+import com.mycompany.almacen.util.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Índice de búsqueda en memoria sobre nombre y modelo de los productos.
+ *
+ * El texto se normaliza una sola vez al construir el índice (minúsculas, sin
+ * acentos). Cada búsqueda exige que todos los tokens de la consulta aparezcan
+ * en el producto. Si la consulta nueva extiende la anterior, solo se revisan
+ * los resultados previos, así que escribir reduce el conjunto de forma incremental.
+ * No es thread-safe: se consulta desde el hilo de JavaFX.
+ */
+public class ProductSearchIndex {
+
+    private static final OperationStats SEARCH = MetricsRegistry.shared().operation("service.ProductSearchIndex.search");
+
+    private final List<Product> products;
+    private final String[] haystacks;
+
+    private String lastQuery = "";
+    private int[] lastMatches;
+
+    public ProductSearchIndex(List<Product> products) {
+        this.products = Collections.unmodifiableList(new ArrayList<>(products));
+        this.haystacks = new String[this.products.size()];
+        for (int i = 0; i < haystacks.length; i++) {
+            Product product = this.products.get(i);
+            haystacks[i] = TextNormalizer.normalize(product.getName()) + " " + TextNormalizer.normalize(product.getModel());
+        }
+        this.lastMatches = allPositions();
+    }
+
+    public List<Product> getAll() {
+        return products;
+    }
+
+    /**
+     * Devuelve los productos que contienen todos los tokens de la consulta.
+     */
+    public List<Product> search(String query) {
+        String normalized = TextNormalizer.normalize(query);
+        if (normalized.isEmpty()) {
+            lastQuery = "";
+            lastMatches = allPositions();
+            return products;
+        }
+
+        long start = System.nanoTime();
+        int[] candidates = normalized.startsWith(lastQuery) ? lastMatches : allPositions();
+        String[] tokens = normalized.split(" ");
+        int[] matches = new int[candidates.length];
+        int count = 0;
+        for (int position : candidates) {
+            if (containsAll(haystacks[position], tokens)) {
+                matches[count++] = position;
+            }
+        }
+
+        lastQuery = normalized;
+        lastMatches = Arrays.copyOf(matches, count);
+
+        List<Product> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(products.get(matches[i]));
+        }
+        SEARCH.record(start, count);
+        return result;
+    }
+
+    private static boolean containsAll(String haystack, String[] tokens) {
+        for (String token : tokens) {
+            if (!haystack.contains(token)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int[] allPositions() {
+        int[] positions = new int[haystacks.length];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+        return positions;
+    }
+}
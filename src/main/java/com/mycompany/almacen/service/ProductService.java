@@ -3,13 +3,16 @@ package com.mycompany.almacen.service;
 import com.mycompany.almacen.dao.ProductDAO;
 import com.mycompany.almacen.dao.CategoryDAO;
 import com.mycompany.almacen.dao.BrandDAO;
+import com.mycompany.almacen.dao.KeysetPage;
+import com.mycompany.almacen.dao.ProductPageRequest;
 import com.mycompany.almacen.exception.AlmacenException;
+import com.mycompany.almacen.exception.StockConflictException;
 import com.mycompany.almacen.exception.ValidationException;
 import com.mycompany.almacen.model.Product;
-import com.mycompany.almacen.model.Category;
-import com.mycompany.almacen.model.Brand;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Servicio para la gestión de productos.
@@ -19,6 +22,9 @@ public class ProductService {
     private ProductDAO productDAO;
     private CategoryDAO categoryDAO;
     private BrandDAO brandDAO;
+    private CategoryService categoryService;
+    private BrandService brandService;
+    private final List<InventoryListener> listeners = new CopyOnWriteArrayList<>();
 
     /**
      * Constructor por defecto con inicialización interna de DAOs.
@@ -34,6 +40,8 @@ public class ProductService {
         this.productDAO = productDAO;
         this.categoryDAO = categoryDAO;
         this.brandDAO = brandDAO;
+        this.categoryService = new CategoryService(categoryDAO);
+        this.brandService = new BrandService(brandDAO);
     }
 
     /**
@@ -43,10 +51,20 @@ public class ProductService {
         this(productDAO, new CategoryDAO(), new BrandDAO());
     }
 
+    /**
+     * Registra un oyente de cambios de inventario (p. ej. contadores del Dashboard).
+     */
+    public void addInventoryListener(InventoryListener listener) {
+        listeners.add(listener);
+    }
+
     public void addProduct(Product product) throws AlmacenException {
         try {
             validateProduct(product);
             productDAO.addProduct(product);
+            for (InventoryListener listener : listeners) {
+                listener.productSaved(product);
+            }
         } catch (ValidationException e) {
             throw e;
         } catch (SQLException e) {
@@ -70,10 +88,46 @@ public class ProductService {
         }
     }
 
+    /**
+     * Obtiene todos los productos con nombres de categoría y marca ya resueltos.
+     * Pensado para tablas: renderizar no requiere consultas adicionales.
+     */
+    public List<Product> getAllProductsWithNames() throws AlmacenException {
+        try {
+            return productDAO.getAllProductsWithNames();
+        } catch (SQLException e) {
+            throw new AlmacenException("Error al obtener el catálogo de productos: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Obtiene una página del catálogo; {@code after} es el último producto de la
+     * página anterior, o null para empezar.
+     */
+    public KeysetPage<Product> getProductsPage(ProductPageRequest request, Product after) throws AlmacenException {
+        try {
+            return productDAO.getProductsPage(request, after);
+        } catch (SQLException e) {
+            throw new AlmacenException("Error al obtener página de productos: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Actualiza el producto si nadie lo cambió desde que se leyó.
+     *
+     * @throws StockConflictException si otra caja lo modificó (venta, edición o importación)
+     */
     public void updateProduct(Product product) throws AlmacenException {
         try {
             validateProduct(product);
-            productDAO.updateProduct(product);
+            if (!productDAO.updateProduct(product)) {
+                throw new StockConflictException("El producto \"" + product.getName()
+                        + "\" fue modificado en otra caja. Recárguelo e intente de nuevo.",
+                        Collections.singletonList(product.getId()));
+            }
+            for (InventoryListener listener : listeners) {
+                listener.productSaved(product);
+            }
         } catch (ValidationException e) {
             throw e;
         } catch (SQLException e) {
@@ -84,6 +138,9 @@ public class ProductService {
     public void deleteProduct(int id) throws AlmacenException {
         try {
             productDAO.deleteProduct(id);
+            for (InventoryListener listener : listeners) {
+                listener.productDeleted(id);
+            }
         } catch (SQLException e) {
             throw new AlmacenException("Error al eliminar producto: " + e.getMessage(), e);
         }
@@ -98,32 +155,37 @@ public class ProductService {
     }
 
     /**
-     * Obtiene el nombre de una categoría por su ID.
-     * Método utilitario para la UI.
+     * Búsqueda por prefijo con ranking sobre nombre, modelo y descripción.
+     * Usa el índice de texto completo, por lo que no recorre toda la tabla.
      */
-    public String getCategoryName(int categoryId) throws AlmacenException {
+    public List<Product> searchProducts(String query, int limit) throws AlmacenException {
         try {
-            Category category = categoryDAO.getCategoryById(categoryId);
-            return category != null ? category.getName() : "General";
+            return productDAO.searchProductsRanked(query, limit);
         } catch (SQLException e) {
-            return "General";
+            throw new AlmacenException("Error al buscar productos: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Obtiene el nombre de una categoría por su ID.
+     * Método utilitario para la UI.
+     */
+    public String getCategoryName(int categoryId) throws AlmacenException {
+        return categoryService.getCategoryName(categoryId);
+    }
+
     /**
      * Obtiene el nombre de una marca por su ID.
      * Método utilitario para la UI.
      */
     public String getBrandName(int brandId) throws AlmacenException {
-        try {
-            Brand brand = brandDAO.getBrandById(brandId);
-            return brand != null ? brand.getName() : "General";
-        } catch (SQLException e) {
-            return "General";
-        }
+        return brandService.getBrandName(brandId);
     }
 
-    private void validateProduct(Product product) throws ValidationException {
+    /**
+     * Reglas comunes de validación de productos (también las usa la importación).
+     */
+    static void validateProduct(Product product) throws ValidationException {
         ValidationException exception = new ValidationException("Errores de validación en el producto");
 
         if (product == null) {
@@ -0,0 +1,100 @@
+package com.mycompany.almacen.service;
+
+import com.mycompany.almacen.util.IntObjectMap;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Caché de lectura para tablas de referencia pequeñas (marcas, categorías).
+ *
+ * Carga la tabla completa una vez y publica una instantánea inmutable con
+ * índices id→entidad y nombre→entidad. Las escrituras invalidan la caché y
+ * la siguiente lectura la recarga de forma atómica.
+ */
+public class ReferenceDataCache<T> {
+
+    /**
+     * Fuente de datos de la caché, normalmente un método getAll del DAO.
+     */
+    @FunctionalInterface
+    public interface Loader<T> {
+        List<T> load() throws SQLException;
+    }
+
+    private final ToIntFunction<T> idOf;
+    private final Function<T, String> nameOf;
+    private volatile Snapshot<T> snapshot;
+
+    public ReferenceDataCache(ToIntFunction<T> idOf, Function<T, String> nameOf) {
+        this.idOf = idOf;
+        this.nameOf = nameOf;
+    }
+
+    /**
+     * Obtiene la instantánea vigente, cargándola con el loader si fue invalidada.
+     */
+    public Snapshot<T> get(Loader<T> loader) throws SQLException {
+        Snapshot<T> current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot != null) {
+                return snapshot;
+            }
+            // La carga ocurre bajo el mismo monitor que invalidate(), así una
+            // invalidación concurrente nunca queda tapada por datos viejos.
+            snapshot = new Snapshot<>(loader.load(), idOf, nameOf);
+            return snapshot;
+        }
+    }
+
+    /**
+     * Descarta la instantánea vigente; la próxima lectura recarga desde la base de datos.
+     */
+    public void invalidate() {
+        synchronized (this) {
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Vista inmutable de la tabla de referencia.
+     */
+    public static class Snapshot<T> {
+        private final List<T> all;
+        private final IntObjectMap<T> byId;
+        private final Map<String, T> byName;
+
+        Snapshot(List<T> rows, ToIntFunction<T> idOf, Function<T, String> nameOf) {
+            this.all = Collections.unmodifiableList(rows);
+            this.byId = new IntObjectMap<>(rows.size());
+            this.byName = new HashMap<>(rows.size() * 2);
+            for (T row : rows) {
+                byId.put(idOf.applyAsInt(row), row);
+                String name = nameOf.apply(row);
+                if (name != null) {
+                    byName.put(name, row);
+                }
+            }
+        }
+
+        public List<T> all() {
+            return all;
+        }
+
+        public T byId(int id) {
+            return byId.get(id);
+        }
+
+        public T byName(String name) {
+            return name != null ? byName.get(name) : null;
+        }
+    }
+}
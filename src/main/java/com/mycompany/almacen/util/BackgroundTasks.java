@@ -0,0 +1,119 @@
+package com.mycompany.almacen.util;
+
+import javafx.application.Platform;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Fachada asíncrona para ejecutar trabajo de base de datos fuera del hilo de JavaFX.
+ *
+ * Las tareas corren en un executor dedicado y sus resultados se entregan con
+ * Platform.runLater. Las solicitudes con la misma clave se reemplazan: al lanzar
+ * una nueva se cancela la anterior y su resultado, si llega, se descarta.
+ * El executor usa hilos de plataforma porque el build compila con release 11;
+ * al migrar a Java 21 basta con cambiar la fábrica por hilos virtuales.
+ */
+public final class BackgroundTasks {
+
+    private static final int WORKERS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final BackgroundTasks SHARED = new BackgroundTasks();
+
+    private final ExecutorService executor;
+    private final Map<String, CompletableFuture<?>> latestByKey = new ConcurrentHashMap<>();
+
+    private BackgroundTasks() {
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        this.executor = Executors.newFixedThreadPool(WORKERS, runnable -> {
+            Thread thread = new Thread(runnable, "db-worker-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static BackgroundTasks shared() {
+        return SHARED;
+    }
+
+    /**
+     * Ejecuta la tarea en segundo plano. Cancelar el future interrumpe la tarea.
+     */
+    public <T> CompletableFuture<T> supply(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running = executor.submit(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                result.complete(task.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                running.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Ejecuta la tarea en segundo plano y entrega el resultado en el hilo de JavaFX.
+     * Si llega otra solicitud con la misma clave, esta se cancela y no se entrega.
+     */
+    public <T> CompletableFuture<T> submit(String key, Callable<T> task,
+                                           Consumer<? super T> onSuccess,
+                                           Consumer<? super Throwable> onError) {
+        CompletableFuture<T> future = supply(task);
+        CompletableFuture<?> previous = latestByKey.put(key, future);
+        if (previous != null) {
+            previous.cancel(true);
+        }
+
+        future.whenComplete((value, error) -> Platform.runLater(() -> {
+            if (!latestByKey.remove(key, future)) {
+                return; // reemplazada por una solicitud más reciente
+            }
+            if (error == null) {
+                onSuccess.accept(value);
+            } else if (!(unwrap(error) instanceof CancellationException)) {
+                onError.accept(unwrap(error));
+            }
+        }));
+        return future;
+    }
+
+    /**
+     * Cancela la solicitud en curso para la clave, si la hay.
+     */
+    public void cancel(String key) {
+        CompletableFuture<?> previous = latestByKey.remove(key);
+        if (previous != null) {
+            previous.cancel(true);
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
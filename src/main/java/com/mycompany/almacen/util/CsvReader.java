@@ -0,0 +1,130 @@
+package com.mycompany.almacen.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector CSV (RFC 4180) sobre un Reader, fila por fila.
+ *
+ * Acepta campos entrecomillados con separadores, comillas dobles y saltos de
+ * línea dentro, y finales de línea CRLF o LF. Solo guarda en memoria la fila
+ * actual; el buffering lo da el Reader.
+ */
+public class CsvReader implements Closeable {
+
+    private static final char SEPARATOR = ',';
+    private static final char BOM = '\uFEFF';
+
+    private final Reader in;
+    private final StringBuilder field = new StringBuilder();
+    private int pending = -2;
+    private int lineNumber = 1;
+    private int rowLineNumber;
+    private boolean firstRow = true;
+
+    public CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Lee la siguiente fila. Devuelve null al llegar al final del archivo.
+     * Las líneas vacías se saltan.
+     */
+    public String[] readRow() throws IOException {
+        List<String> fields = new ArrayList<>();
+        int c = next();
+        if (firstRow) {
+            firstRow = false;
+            if (c == BOM) {
+                c = next();
+            }
+        }
+        while (c == '\r' || c == '\n') {
+            consumeLineEnd(c);
+            c = next();
+        }
+        if (c == -1) {
+            return null;
+        }
+        rowLineNumber = lineNumber;
+
+        field.setLength(0);
+        boolean quoted = false;
+        boolean inQuotes = false;
+        while (true) {
+            if (inQuotes) {
+                if (c == -1) {
+                    throw new IOException("Comillas sin cerrar en la fila de la línea " + rowLineNumber);
+                }
+                if (c == '"') {
+                    int following = next();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        inQuotes = false;
+                        c = following;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0 && !quoted) {
+                quoted = true;
+                inQuotes = true;
+            } else if (c == SEPARATOR) {
+                fields.add(field.toString());
+                field.setLength(0);
+                quoted = false;
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                fields.add(field.toString());
+                if (c != -1) {
+                    consumeLineEnd(c);
+                }
+                return fields.toArray(new String[0]);
+            } else {
+                field.append((char) c);
+            }
+            c = next();
+        }
+    }
+
+    /**
+     * Línea (base 1) donde empezó la última fila devuelta por {@link #readRow()}.
+     */
+    public int getLineNumber() {
+        return rowLineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private int next() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return in.read();
+    }
+
+    /**
+     * Consume un fin de línea (CR, LF o CRLF) que empieza en {@code c}.
+     */
+    private void consumeLineEnd(int c) throws IOException {
+        lineNumber++;
+        if (c == '\r') {
+            int following = next();
+            if (following != '\n') {
+                pending = following;
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.mycompany.almacen.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Escritor CSV (RFC 4180) sobre un Writer, fila por fila.
+ *
+ * Los campos se entrecomillan solo si contienen separador, comillas o saltos
+ * de línea. No guarda filas en memoria; el buffering lo da el Writer.
+ */
+public class CsvWriter implements Closeable {
+
+    private static final char SEPARATOR = ',';
+    private static final String LINE_END = "\r\n";
+
+    private final Writer out;
+    private boolean firstField = true;
+
+    public CsvWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Escribe una fila completa.
+     */
+    public void writeRow(String... fields) throws IOException {
+        for (String field : fields) {
+            writeField(field);
+        }
+        endRow();
+    }
+
+    /**
+     * Escribe un campo de la fila actual. null se escribe como campo vacío.
+     */
+    public void writeField(String field) throws IOException {
+        if (!firstField) {
+            out.write(SEPARATOR);
+        }
+        firstField = false;
+        if (field == null || field.isEmpty()) {
+            return;
+        }
+        if (needsQuoting(field)) {
+            out.write('"');
+            for (int i = 0; i < field.length(); i++) {
+                char c = field.charAt(i);
+                if (c == '"') {
+                    out.write('"');
+                }
+                out.write(c);
+            }
+            out.write('"');
+        } else {
+            out.write(field);
+        }
+    }
+
+    public void writeField(long value) throws IOException {
+        writeField(Long.toString(value));
+    }
+
+    public void endRow() throws IOException {
+        out.write(LINE_END);
+        firstField = true;
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private static boolean needsQuoting(String field) {
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == SEPARATOR || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
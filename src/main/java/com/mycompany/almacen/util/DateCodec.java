@@ -0,0 +1,55 @@
+package com.mycompany.almacen.util;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Conversión y formato de fechas guardadas como epoch millis.
+ *
+ * Usa formateadores de java.time, que son inmutables y se comparten entre
+ * hilos sin sincronización, en lugar de instancias de SimpleDateFormat.
+ * Se usa la zona horaria del sistema.
+ */
+public final class DateCodec {
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter ISO_DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private DateCodec() {
+    }
+
+    /**
+     * Formatea como "dd/MM/yyyy HH:mm:ss".
+     */
+    public static String formatDateTime(long epochMillis) {
+        return DATE_TIME.format(Instant.ofEpochMilli(epochMillis).atZone(ZoneId.systemDefault()));
+    }
+
+    /**
+     * Formatea como "dd/MM/yyyy".
+     */
+    public static String formatDate(long epochMillis) {
+        return DATE.format(Instant.ofEpochMilli(epochMillis).atZone(ZoneId.systemDefault()));
+    }
+
+    /**
+     * Formatea como "yyyy-MM-dd HH:mm:ss", ordenable como texto (exportaciones).
+     */
+    public static String formatIsoDateTime(long epochMillis) {
+        return ISO_DATE_TIME.format(Instant.ofEpochMilli(epochMillis).atZone(ZoneId.systemDefault()));
+    }
+
+    public static LocalDate toLocalDate(long epochMillis) {
+        return Instant.ofEpochMilli(epochMillis).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    /**
+     * Epoch millis del inicio del día en la zona local.
+     */
+    public static long startOfDayMillis(LocalDate day) {
+        return day.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,89 @@
+package com.mycompany.almacen.util;
+
+import java.util.Arrays;
+
+/**
+ * Mapa de claves int primitivas a objetos con direccionamiento abierto.
+ * Evita el boxing de Integer y los nodos de HashMap en búsquedas por ID.
+ * No es thread-safe; pensado para construirse una vez y publicarse inmutable.
+ */
+public class IntObjectMap<V> {
+
+    private static final int FREE = Integer.MIN_VALUE;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+
+    public IntObjectMap() {
+        this(16);
+    }
+
+    public IntObjectMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        Arrays.fill(keys, FREE);
+    }
+
+    public void put(int key, V value) {
+        if (key == FREE) {
+            throw new IllegalArgumentException("Clave reservada: " + key);
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        int slot = indexOf(key);
+        if (keys[slot] == FREE) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        if (key == FREE) {
+            return null;
+        }
+        int slot = indexOf(key);
+        return keys[slot] == key ? (V) values[slot] : null;
+    }
+
+    public boolean containsKey(int key) {
+        return key != FREE && keys[indexOf(key)] == key;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int indexOf(int key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        Arrays.fill(keys, FREE);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = indexOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,48 @@
+package com.mycompany.almacen.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Conversión entre montos decimales y centavos enteros.
+ *
+ * La base guarda los importes como INTEGER en centavos para que sumas y
+ * comparaciones sean exactas; la UI sigue trabajando con double.
+ */
+public final class Money {
+
+    private Money() {
+    }
+
+    /**
+     * Convierte un monto a centavos, redondeando al centavo más cercano.
+     */
+    public static long toCents(double amount) {
+        return Math.round(amount * 100.0);
+    }
+
+    public static double toAmount(long cents) {
+        return cents / 100.0;
+    }
+
+    /**
+     * Representación decimal exacta con dos decimales, p. ej. 123456 → "1234.56".
+     */
+    public static String toPlainString(long cents) {
+        long abs = Math.abs(cents);
+        long fraction = abs % 100;
+        return (cents < 0 ? "-" : "") + (abs / 100) + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+
+    /**
+     * Interpreta un monto escrito como texto ("1234.5", "1234,50") sin pasar por
+     * double. Lanza NumberFormatException si el texto no es un número.
+     */
+    public static long parseCents(String text) {
+        String cleaned = text.trim();
+        if (cleaned.indexOf('.') < 0) {
+            cleaned = cleaned.replace(',', '.');
+        }
+        return new BigDecimal(cleaned).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+}
@@ -15,13 +15,10 @@ import com.mycompany.almacen.model.Invoice;
 import com.mycompany.almacen.model.InvoiceItem;
 
 import java.io.FileNotFoundException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.List;
 
 public class PdfGenerator {
 
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
     private static final DeviceRgb PRIMARY_COLOR = new DeviceRgb(79, 70, 229);
     private static final DeviceRgb LIGHT_GRAY = new DeviceRgb(249, 250, 251);
     private static final DeviceRgb DARK_TEXT = new DeviceRgb(31, 41, 55);
@@ -38,7 +35,7 @@ public class PdfGenerator {
                 .setFontColor(PRIMARY_COLOR)
                 .setTextAlignment(TextAlignment.CENTER));
         
-        document.add(new Paragraph("Fecha: " + DATE_FORMAT.format(new Date()))
+        document.add(new Paragraph("Fecha: " + DateCodec.formatDateTime(System.currentTimeMillis()))
                 .setTextAlignment(TextAlignment.RIGHT)
                 .setFontSize(10));
         
@@ -47,7 +44,7 @@ public class PdfGenerator {
         // Invoice Details
         document.add(new Paragraph("Numero de Factura: " + invoice.getId()));
         document.add(new Paragraph("Cliente: " + (invoice.getCustomerName() != null ? invoice.getCustomerName() : "General")));
-        document.add(new Paragraph("Fecha de Compra: " + DATE_FORMAT.format(invoice.getInvoiceDate())));
+        document.add(new Paragraph("Fecha de Compra: " + DateCodec.formatDateTime(invoice.getInvoiceDateMillis())));
         document.add(new Paragraph("--------------------------------------------------"));
 
         // Items Table
@@ -95,7 +92,7 @@ public class PdfGenerator {
                 .setFontColor(PRIMARY_COLOR)
                 .setTextAlignment(TextAlignment.CENTER));
         
-        document.add(new Paragraph("Fecha: " + new SimpleDateFormat("dd/MM/yyyy HH:mm:ss").format(new Date()))
+        document.add(new Paragraph("Fecha: " + DateCodec.formatDateTime(System.currentTimeMillis()))
                 .setTextAlignment(TextAlignment.RIGHT)
                 .setFontSize(10));
         
@@ -104,7 +101,7 @@ public class PdfGenerator {
         // Invoice Details
         document.add(new Paragraph("Numero de Recibo: " + invoice.getId()));
         document.add(new Paragraph("Cliente: " + (invoice.getCustomerName() != null ? invoice.getCustomerName() : "General")));
-        document.add(new Paragraph("Fecha de Servicio: " + new SimpleDateFormat("dd/MM/yyyy").format(invoice.getInvoiceDate())));
+        document.add(new Paragraph("Fecha de Servicio: " + DateCodec.formatDate(invoice.getInvoiceDateMillis())));
         document.add(new Paragraph("--------------------------------------------------"));
 
         // Service Description
@@ -0,0 +1,135 @@
+package com.mycompany.almacen.util;
+
+import com.mycompany.almacen.metrics.MetricsRegistry;
+import com.mycompany.almacen.metrics.OperationStats;
+import com.mycompany.almacen.model.Invoice;
+import com.mycompany.almacen.model.InvoiceItem;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servicio de generación de PDFs en segundo plano.
+ *
+ * Usa una cola acotada y un pool pequeño de hilos para que la caja no espere
+ * el layout de iText ni la escritura a disco. Cada solicitud devuelve un
+ * CompletableFuture con la ruta del archivo y se reintenta ante errores de E/S.
+ */
+public class PdfRenderService {
+
+    private static final int WORKERS = 2;
+    private static final int QUEUE_CAPACITY = 32;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_BACKOFF_MILLIS = 250;
+
+    private static final OperationStats QUEUE_WAIT = MetricsRegistry.shared().operation("pdf.queueWait");
+    private static final OperationStats RENDER_INVOICE = MetricsRegistry.shared().operation("pdf.renderInvoice");
+    private static final OperationStats RENDER_SERVICE_RECEIPT = MetricsRegistry.shared().operation("pdf.renderServiceReceipt");
+
+    @FunctionalInterface
+    private interface RenderJob {
+        void render(String dest) throws IOException;
+    }
+
+    private final ThreadPoolExecutor executor;
+
+    public PdfRenderService() {
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        this.executor = new ThreadPoolExecutor(
+            WORKERS, WORKERS,
+            0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+            runnable -> {
+                Thread thread = new Thread(runnable, "pdf-render-" + threadNumber.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    /**
+     * Encola la factura de venta. El future se completa con la ruta del PDF.
+     */
+    public CompletableFuture<String> renderInvoice(Invoice invoice, List<InvoiceItem> items, String dest) {
+        List<InvoiceItem> snapshot = new ArrayList<>(items);
+        return submit(dest, RENDER_INVOICE, path -> PdfGenerator.generateInvoicePdf(invoice, snapshot, path));
+    }
+
+    /**
+     * Encola el recibo de servicio. El future se completa con la ruta del PDF.
+     */
+    public CompletableFuture<String> renderServiceReceipt(Invoice invoice, String dest) {
+        return submit(dest, RENDER_SERVICE_RECEIPT, path -> PdfGenerator.generateServiceInvoicePdf(invoice, path));
+    }
+
+    private CompletableFuture<String> submit(String dest, OperationStats stats, RenderJob job) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        long queuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                QUEUE_WAIT.record(queuedAt);
+                runWithRetry(dest, stats, job, result);
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new IOException("Cola de PDFs llena o servicio detenido", e));
+        }
+        return result;
+    }
+
+    private void runWithRetry(String dest, OperationStats stats, RenderJob job, CompletableFuture<String> result) {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                File parent = new File(dest).getAbsoluteFile().getParentFile();
+                if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+                    throw new IOException("No se pudo crear el directorio " + parent);
+                }
+                long start = System.nanoTime();
+                job.render(dest);
+                stats.record(start);
+                result.complete(dest);
+                return;
+            } catch (IOException | UncheckedIOException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    result.completeExceptionally(e);
+                    return;
+                }
+                System.err.println("Error generando PDF (intento " + attempt + "): " + e.getMessage());
+                try {
+                    Thread.sleep(RETRY_BACKOFF_MILLIS * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    result.completeExceptionally(e);
+                    return;
+                }
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Deja de aceptar trabajos y espera a que terminen los PDFs pendientes.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                System.err.println("PDFs pendientes descartados al cerrar: " + executor.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}